@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.audio.codec;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link DFPWM} against the original codec, kept in the test
+ * sources as {@link ReferenceDFPWM}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DFPWMBenchmark {
+	// one second of 48kHz audio
+	@Param({"6000"})
+	public int length;
+
+	private byte[] pcm, data, decoded;
+	private ByteBuffer directPcm, directData, directDecoded;
+
+	@Setup
+	public void setup() {
+		pcm = new byte[length * 8];
+		Random random = new Random(0x5EED);
+		for (int i = 0; i < pcm.length; i++) {
+			pcm[i] = (byte) (Math.sin(i * 440 * 2 * Math.PI / 48000) * 100 + random.nextInt(16) - 8);
+		}
+
+		data = new byte[length];
+		decoded = new byte[length * 8];
+		new ReferenceDFPWM().compress(data, pcm, 0, 0, length);
+
+		directPcm = ByteBuffer.allocateDirect(pcm.length);
+		directPcm.put(pcm).flip();
+		directData = ByteBuffer.allocateDirect(length);
+		directData.put(data).flip();
+		directDecoded = ByteBuffer.allocateDirect(decoded.length);
+	}
+
+	@Benchmark
+	public byte[] compressReference() {
+		new ReferenceDFPWM().compress(data, pcm, 0, 0, length);
+		return data;
+	}
+
+	@Benchmark
+	public byte[] compress() {
+		new DFPWM().compress(data, pcm, 0, 0, length);
+		return data;
+	}
+
+	@Benchmark
+	public ByteBuffer compressDirect() {
+		directPcm.rewind();
+		directData.clear();
+		new DFPWM().compress(directData, directPcm);
+		return directData;
+	}
+
+	@Benchmark
+	public byte[] decompressReference() {
+		new ReferenceDFPWM().decompress(decoded, data, 0, 0, length);
+		return decoded;
+	}
+
+	@Benchmark
+	public byte[] decompress() {
+		new DFPWM().decompress(decoded, data, 0, 0, length);
+		return decoded;
+	}
+
+	@Benchmark
+	public ByteBuffer decompressDirect() {
+		directData.rewind();
+		directDecoded.clear();
+		new DFPWM().decompress(directDecoded, directData);
+		return directDecoded;
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.material;
+
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.item.crafting.ShapedRecipes;
+import net.minecraft.item.crafting.ShapelessRecipes;
+import net.minecraft.util.NonNullList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.asie.charset.lib.utils.RecipeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the indexed (and memoized) recipe lookup against the linear
+ * scan done by CraftingManager, over a synthetic registry of shaped and
+ * shapeless recipes made from vanilla items.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FastRecipeLookupBenchmark {
+	private static final int QUERIES = 512;
+
+	@Param({"10000"})
+	public int recipeCount;
+
+	private final List<IRecipe> recipes = new ArrayList<>();
+	private InventoryCrafting[] queries;
+	private int[] queryStacks;
+	private int queryIndex;
+
+	@Setup
+	public void setup() {
+		Bootstrap.register();
+
+		List<Item> items = new ArrayList<>();
+		for (Item item : Item.REGISTRY) {
+			if (item != Items.AIR) {
+				items.add(item);
+			}
+		}
+
+		Random random = new Random(0x5EED);
+		recipes.clear();
+		for (int i = 0; i < recipeCount; i++) {
+			ItemStack output = new ItemStack(items.get(random.nextInt(items.size())));
+
+			if (random.nextInt(4) == 0) {
+				NonNullList<Ingredient> ingredients = NonNullList.create();
+				for (int j = 2 + random.nextInt(8); j > 0; j--) {
+					ingredients.add(Ingredient.fromStacks(new ItemStack(items.get(random.nextInt(items.size())))));
+				}
+				recipes.add(new ShapelessRecipes("", output, ingredients));
+			} else {
+				int width = 2 + random.nextInt(2);
+				int height = 1 + random.nextInt(3);
+				NonNullList<Ingredient> ingredients = NonNullList.withSize(width * height, Ingredient.EMPTY);
+				for (int j = 0; j < ingredients.size(); j++) {
+					ingredients.set(j, Ingredient.fromStacks(new ItemStack(items.get(random.nextInt(items.size())))));
+				}
+				recipes.add(new ShapedRecipes("", width, height, ingredients, output));
+			}
+		}
+
+		FastRecipeLookup.clearRecipeLists();
+		FastRecipeLookup.initRecipeLists(recipes);
+
+		// half of the queries match a recipe, the other half are random grids
+		queries = new InventoryCrafting[QUERIES];
+		queryStacks = new int[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			IRecipe recipe = recipes.get(random.nextInt(recipes.size()));
+			InventoryCrafting crafting;
+
+			if ((i & 1) == 0 && recipe instanceof ShapedRecipes) {
+				// sized like the recipe, as the unmemoized lookup expects a trimmed grid
+				ShapedRecipes shaped = (ShapedRecipes) recipe;
+				crafting = RecipeUtils.getCraftingInventory(shaped.getRecipeWidth(), shaped.getRecipeHeight());
+				for (int j = 0; j < shaped.getIngredients().size(); j++) {
+					crafting.setInventorySlotContents(j, shaped.getIngredients().get(j).getMatchingStacks()[0].copy());
+					queryStacks[i]++;
+				}
+			} else {
+				crafting = RecipeUtils.getCraftingInventory(3, 3);
+				for (int j = 0; j < 9; j++) {
+					if (random.nextBoolean()) {
+						crafting.setInventorySlotContents(j, new ItemStack(items.get(random.nextInt(items.size()))));
+						queryStacks[i]++;
+					}
+				}
+			}
+
+			queries[i] = crafting;
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		FastRecipeLookup.clearRecipeLists();
+	}
+
+	private int nextQuery() {
+		queryIndex = (queryIndex + 1) & (QUERIES - 1);
+		return queryIndex;
+	}
+
+	@Benchmark
+	public void linearScan(Blackhole blackhole) {
+		InventoryCrafting crafting = queries[nextQuery()];
+		for (IRecipe recipe : recipes) {
+			if (recipe.matches(crafting, null)) {
+				blackhole.consume(recipe);
+				return;
+			}
+		}
+	}
+
+	@Benchmark
+	public void indexed(Blackhole blackhole) {
+		int i = nextQuery();
+		blackhole.consume(FastRecipeLookup.findMatchingRecipeQuickly(false, queryStacks[i], queries[i], null));
+	}
+
+	@Benchmark
+	public void indexedMemoized(Blackhole blackhole) {
+		blackhole.consume(FastRecipeLookup.findMatchingRecipe(queries[nextQuery()], null));
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.network;
+
+import net.minecraft.network.INetHandler;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.common.network.internal.FMLProxyPacket;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the encoding side of sendToWatching: the old path encoded the
+ * packet into a new proxy packet for every watching player, the multicast
+ * path encodes it once and hands each player a duplicate.
+ *
+ * Looking up the watchers (PlayerChunkMapEntry) and handing packets to
+ * their connections need a running server, so they are not covered here.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SendToWatchingEncodeBenchmark {
+	private static final String CHANNEL = "benchmark";
+
+	private static final class TestPacket extends Packet {
+		private final byte[] data;
+		private final boolean sized;
+
+		TestPacket(int size, boolean sized) {
+			this.data = new byte[size];
+			this.sized = sized;
+		}
+
+		@Override
+		public void readData(INetHandler handler, PacketBuffer buf) {
+			buf.readBytes(data);
+		}
+
+		@Override
+		public void apply(INetHandler handler) {
+
+		}
+
+		@Override
+		public void writeData(PacketBuffer buf) {
+			buf.writeVarInt(data.length);
+			buf.writeBytes(data);
+		}
+
+		@Override
+		public int estimateSize() {
+			return sized ? data.length + 5 : -1;
+		}
+
+		@Override
+		public boolean isAsynchronous() {
+			return true;
+		}
+	}
+
+	@Param({"1", "8", "32"})
+	public int watchers;
+
+	@Param({"32", "512"})
+	public int size;
+
+	// whether the packet gives a size hint, which picks the encoder's buffer strategy
+	@Param({"true", "false"})
+	public boolean sized;
+
+	private final PacketStatistics statistics = new PacketStatistics();
+	private Packet packet;
+
+	@Setup
+	public void setup() {
+		packet = new TestPacket(size, sized);
+	}
+
+	// what PacketChannelHandler.encode did for every player
+	@Benchmark
+	public void perPlayer(Blackhole blackhole) {
+		for (int i = 0; i < watchers; i++) {
+			blackhole.consume(new FMLProxyPacket(PacketRegistry.encode(0, packet, statistics), CHANNEL));
+		}
+	}
+
+	@Benchmark
+	public void multicast(Blackhole blackhole) {
+		PacketBuffer buffer = PacketRegistry.encode(0, packet, statistics);
+		for (int i = 0; i < watchers; i++) {
+			blackhole.consume(PacketRegistry.createProxy(buffer, CHANNEL));
+		}
+	}
+}
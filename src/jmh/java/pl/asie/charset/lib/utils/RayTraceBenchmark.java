@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.utils;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.BlockSlab;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.profiler.Profiler;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.GameType;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkPrimer;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.storage.WorldInfo;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Traces the 80 rays a steam mirror casts from one origin through a
+ * synthetic world, comparing the original fixed-step tracer (kept in the
+ * test sources as {@link ReferenceRayTrace}) against the voxel cursor,
+ * one segment at a time and batched through castMany.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RayTraceBenchmark {
+	private static final int SEARCH_DISTANCE = 10;
+	private static final int ORIGINS = 64;
+	private static final Predicate<BlockPos> NO_IGNORE = (pos) -> false;
+
+	private static final class SyntheticWorld extends World {
+		private final Long2ObjectMap<Chunk> chunks = new Long2ObjectOpenHashMap<>();
+
+		SyntheticWorld() {
+			super(null, new WorldInfo(new WorldSettings(0L, GameType.SURVIVAL, false, false, WorldType.FLAT), "benchmark"),
+					new WorldProviderSurface(), new Profiler(), false);
+		}
+
+		void addChunk(ChunkPrimer primer, int x, int z) {
+			chunks.put(ChunkPos.asLong(x, z), new Chunk(this, primer, x, z));
+		}
+
+		@Override
+		public Chunk getChunkFromChunkCoords(int x, int z) {
+			return chunks.get(ChunkPos.asLong(x, z));
+		}
+
+		@Override
+		protected IChunkProvider createChunkProvider() {
+			return null;
+		}
+
+		@Override
+		protected boolean isChunkLoaded(int x, int z, boolean allowEmpty) {
+			return chunks.containsKey(ChunkPos.asLong(x, z));
+		}
+	}
+
+	// chance of a block being solid, or a half slab
+	@Param({"0.02", "0.1"})
+	public double density;
+
+	private World world;
+	private Vec3d[] origins;
+	private List<List<Vec3d>> targets;
+	private int originIndex;
+
+	@Setup
+	public void setup() {
+		Bootstrap.register();
+
+		Random random = new Random(0x5EED);
+		IBlockState slab = Blocks.STONE_SLAB.getDefaultState().withProperty(BlockSlab.HALF, BlockSlab.EnumBlockHalf.BOTTOM);
+		SyntheticWorld world = new SyntheticWorld();
+		for (int cx = -2; cx <= 2; cx++) {
+			for (int cz = -2; cz <= 2; cz++) {
+				ChunkPrimer primer = new ChunkPrimer();
+				for (int x = 0; x < 16; x++) {
+					for (int z = 0; z < 16; z++) {
+						for (int y = 60; y < 68; y++) {
+							if (random.nextDouble() < density) {
+								primer.setBlockState(x, y, z, random.nextInt(4) == 0 ? slab : Blocks.STONE.getDefaultState());
+							}
+						}
+					}
+				}
+				world.addChunk(primer, cx, cz);
+			}
+		}
+		this.world = world;
+
+		origins = new Vec3d[ORIGINS];
+		targets = new ArrayList<>(ORIGINS);
+		for (int i = 0; i < ORIGINS; i++) {
+			BlockPos pos = new BlockPos(random.nextInt(16) - 8, 61 + random.nextInt(6), random.nextInt(16) - 8);
+			origins[i] = new Vec3d(pos).addVector(0.5, 0.5, 0.5);
+
+			List<Vec3d> list = new ArrayList<>(SEARCH_DISTANCE * 8);
+			for (int j = 0; j < SEARCH_DISTANCE * 2; j++) {
+				list.add(new Vec3d(pos.add(-SEARCH_DISTANCE + j, 0, -SEARCH_DISTANCE)).addVector(0.5, 0.5, 0.5));
+				list.add(new Vec3d(pos.add(SEARCH_DISTANCE, 0, -SEARCH_DISTANCE + j)).addVector(0.5, 0.5, 0.5));
+				list.add(new Vec3d(pos.add(SEARCH_DISTANCE - j, 0, SEARCH_DISTANCE)).addVector(0.5, 0.5, 0.5));
+				list.add(new Vec3d(pos.add(-SEARCH_DISTANCE, 0, SEARCH_DISTANCE - j)).addVector(0.5, 0.5, 0.5));
+			}
+			targets.add(list);
+		}
+	}
+
+	private int nextOrigin() {
+		originIndex = (originIndex + 1) & (ORIGINS - 1);
+		return originIndex;
+	}
+
+	@Benchmark
+	public void stepper(Blackhole blackhole) {
+		int i = nextOrigin();
+		for (Vec3d target : targets.get(i)) {
+			blackhole.consume(ReferenceRayTrace.getCollision(world, origins[i], target, NO_IGNORE));
+		}
+	}
+
+	@Benchmark
+	public void cursor(Blackhole blackhole) {
+		int i = nextOrigin();
+		RayTraceUtils.Cursor cursor = new RayTraceUtils.Cursor();
+		for (Vec3d target : targets.get(i)) {
+			blackhole.consume(RayTraceUtils.getCollision(world, cursor, origins[i], target, NO_IGNORE));
+		}
+	}
+
+	@Benchmark
+	public void castMany(Blackhole blackhole) {
+		int i = nextOrigin();
+		blackhole.consume(RayTraceUtils.castMany(world, origins[i], targets.get(i), NO_IGNORE));
+	}
+}
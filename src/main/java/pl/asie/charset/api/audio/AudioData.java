@@ -29,5 +29,12 @@ public abstract class AudioData {
     public abstract int getTime();
     public abstract void readData(ByteBuf buf);
     public abstract void writeData(ByteBuf buf);
+
+    /**
+     * @return The number of bytes written by {@link #writeData(ByteBuf)}, or -1 if unknown.
+     */
+    public int getEncodedSize() {
+        return -1;
+    }
     protected abstract void sendClient(AudioPacket packet);
 }
@@ -23,6 +23,7 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.MultimapBuilder;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.fml.common.event.FMLInterModComms;
@@ -30,11 +31,47 @@ import pl.asie.charset.ModCharset;
 import pl.asie.charset.lib.config.ConfigUtils;
 import pl.asie.charset.lib.utils.ThreeState;
 
+import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 public final class CharsetIMC {
+    /**
+     * The registry entries for one key, flattened so that lookups
+     * need neither string concatenation nor multimap traversal.
+     */
+    private static final class CompiledKey {
+        private final Map<ResourceLocation, ThreeState> locs = new HashMap<>();
+        private final Map<String, ThreeState> domains = new HashMap<>();
+        // AttachCapabilitiesEvent fires on both the client and server threads
+        private final Map<Class<?>, ThreeState> classes = new ConcurrentHashMap<>();
+        // registration does not depend on the key, so this is shared
+        private static final Map<Class<?>, Boolean> registeredClasses = new ConcurrentHashMap<>();
+
+        private static boolean isRegistered(Class<? extends TileEntity> tileClass) {
+            return registeredClasses.computeIfAbsent(tileClass, (c) -> TileEntity.getKey(tileClass) != null);
+        }
+
+        private ThreeState allows(ResourceLocation location) {
+            ThreeState result = locs.get(location);
+            if (result == null) {
+                result = domains.get(location.getResourceDomain());
+            }
+            return result != null ? result : ThreeState.MAYBE;
+        }
+
+        private ThreeState allows(Class<? extends TileEntity> tileClass) {
+            ThreeState result = classes.get(tileClass);
+            if (result == null) {
+                result = isRegistered(tileClass) ? allows(TileEntity.getKey(tileClass)) : ThreeState.MAYBE;
+                classes.put(tileClass, result);
+            }
+            return result;
+        }
+    }
+
     public static CharsetIMC INSTANCE = new CharsetIMC();
     private final Multimap<String, ResourceLocation> registryLocs = HashMultimap.create();
     private final Multimap<String, String> registryDomainLocs = HashMultimap.create();
@@ -42,6 +79,8 @@ public final class CharsetIMC {
     private Set<Consumer<CharsetIMC>> queuedListeners = Collections.newSetFromMap(new IdentityHashMap<>());
     private int registriesFrozen = 0;
     private int buildingCallQueue = 0;
+    private volatile Map<String, CompiledKey> compiledKeys = Collections.emptyMap();
+    private volatile boolean compiledDirty = true;
 
     private CharsetIMC() {
 
@@ -49,6 +88,43 @@ public final class CharsetIMC {
 
     public void freezeRegistries() {
         registriesFrozen++;
+        compile();
+    }
+
+    private synchronized void compile() {
+        if (!compiledDirty) {
+            return;
+        }
+
+        // cleared up front, so that a change racing the rebuild marks it dirty again
+        compiledDirty = false;
+        Map<String, CompiledKey> keys = new HashMap<>();
+        // whitelist first, so that blacklist entries take precedence
+        for (String prefix : new String[] { "w:", "b:" }) {
+            ThreeState state = prefix.equals("b:") ? ThreeState.NO : ThreeState.YES;
+
+            for (Map.Entry<String, ResourceLocation> entry : registryLocs.entries()) {
+                if (entry.getKey().startsWith(prefix)) {
+                    keys.computeIfAbsent(entry.getKey().substring(prefix.length()), (k) -> new CompiledKey()).locs.put(entry.getValue(), state);
+                }
+            }
+
+            for (Map.Entry<String, String> entry : registryDomainLocs.entries()) {
+                if (entry.getKey().startsWith(prefix)) {
+                    keys.computeIfAbsent(entry.getKey().substring(prefix.length()), (k) -> new CompiledKey()).domains.put(entry.getValue(), state);
+                }
+            }
+        }
+
+        compiledKeys = keys;
+    }
+
+    @Nullable
+    private CompiledKey getCompiledKey(String key) {
+        if (compiledDirty) {
+            compile();
+        }
+        return compiledKeys.get(key);
     }
 
     public void unfreezeRegistries() {
@@ -89,6 +165,8 @@ public final class CharsetIMC {
     }
 
     private void onChange(String key) {
+        compiledDirty = true;
+
         if (key.contains(":")) {
             key = key.substring(key.indexOf(":") + 1);
         }
@@ -127,20 +205,24 @@ public final class CharsetIMC {
     }
 
     public ThreeState allows(String key, ResourceLocation location) {
-        String bKey = "b:" + key;
-        String wKey = "w:" + key;
-
-        if (registryLocs.get(bKey).contains(location)) {
-            return ThreeState.NO;
-        } else if (registryLocs.get(wKey).contains(location)) {
-            return ThreeState.YES;
-        } else if (registryDomainLocs.get(bKey).contains(location.getResourceDomain())) {
-            return ThreeState.NO;
-        } else if (registryDomainLocs.get(wKey).contains(location.getResourceDomain())) {
-            return ThreeState.YES;
-        } else {
-            return ThreeState.MAYBE;
-        }
+        CompiledKey compiled = getCompiledKey(key);
+        return compiled != null ? compiled.allows(location) : ThreeState.MAYBE;
+    }
+
+    /**
+     * Class-keyed variant of {@link #allows(String, ResourceLocation)}, memoized
+     * per tile entity class. Unregistered classes are reported as MAYBE.
+     */
+    public ThreeState allows(String key, Class<? extends TileEntity> tileClass) {
+        CompiledKey compiled = getCompiledKey(key);
+        return compiled != null ? compiled.allows(tileClass) : ThreeState.MAYBE;
+    }
+
+    /**
+     * @return Whether the tile entity class has a registry name, memoized per class.
+     */
+    public boolean isRegistered(Class<? extends TileEntity> tileClass) {
+        return CompiledKey.isRegistered(tileClass);
     }
 
     public ThreeState allows(String key, Collection<ResourceLocation> locations) {
@@ -48,6 +48,7 @@ import pl.asie.charset.lib.audio.types.AudioDataDFPWM;
 import pl.asie.charset.lib.audio.types.AudioDataGameSound;
 import pl.asie.charset.lib.audio.types.AudioSinkBlock;
 import pl.asie.charset.lib.block.PacketCustomBlockDust;
+import pl.asie.charset.lib.block.TileSyncService;
 import pl.asie.charset.lib.capability.Capabilities;
 import pl.asie.charset.lib.command.*;
 import pl.asie.charset.lib.config.CharsetLoadConfigEvent;
@@ -74,6 +75,7 @@ import pl.asie.charset.lib.resources.ColorPaletteParser;
 import pl.asie.charset.lib.scheduler.Scheduler;
 import pl.asie.charset.lib.utils.*;
 import pl.asie.charset.lib.utils.colorspace.Colorspaces;
+import pl.asie.charset.lib.wires.WireChunkTracker;
 
 import java.lang.reflect.Field;
 import java.util.Calendar;
@@ -144,8 +146,10 @@ public class CharsetLib {
 		alwaysDropDroppablesGivenToPlayer = ConfigUtils.getBoolean(config, "general", "alwaysDropDroppablesGivenToPlayer", false, "Setting this option to true will stop Charset from giving players items directly into the player inventory when the alternative is dropping it (for instance, taking item out of barrels).", true);
 		enableDebugInfo = ConfigUtils.getBoolean(config, "expert","enableDebugInfo", ModCharset.INDEV, "Enable developer debugging information. Don't enable this unless asked/you know what you're doing.", false);
 		FastRecipeLookup.ENABLED = !ConfigUtils.getBoolean(config, "general", "disableRecipeOptimizations", false, "Set to true to disable recipe optimizations. Use only if weird behaviour exhibited, and always contact the developer first!", false);
+		ItemMaterialHeuristics.CACHE_ENABLED = !ConfigUtils.getBoolean(config, "expert", "disableMaterialCache", false, "Set to true to always rescan item materials on startup instead of reusing materialCache.dat. Use if materials are missing or wrong after changing recipes.", true);
 
 		doubleClickDuration = ConfigUtils.getInt(config, "general", "doubleClickDuration", 10, 0, 60*20, "The duration of ticks that can pass between two clicks to be registered as a double-click.", false);
+		Scheduler.INSTANCE.setTickBudget(ConfigUtils.getInt(config, "expert", "schedulerTickBudget", 20, 0, 1000, "The time, in milliseconds, scheduled tasks may take per world tick before the rest is deferred to the next tick. Set to 0 to disable the limit.", false));
 
 		boolean oldShowAllItemTypes = showAllItemTypes;
 		showAllItemTypes = ConfigUtils.getBoolean(config, "general","showAllItemTypes", ModCharset.INDEV, "Make mods such as JEI show all combinations of a given item (within reason), as opposed to a random selection.", false);
@@ -169,6 +173,8 @@ public class CharsetLib {
 
 		MinecraftForge.EVENT_BUS.register(new CharsetLibEventHandler());
 		MinecraftForge.EVENT_BUS.register(Scheduler.INSTANCE);
+		MinecraftForge.EVENT_BUS.register(TileSyncService.INSTANCE);
+		MinecraftForge.EVENT_BUS.register(WireChunkTracker.INSTANCE);
 
 		Colorspaces.init();
 	}
@@ -196,15 +202,15 @@ public class CharsetLib {
 
 	@Mod.EventHandler
 	public void init(FMLInitializationEvent event) {
-		packet.registerPacket(0x01, PacketAudioData.class);
-		packet.registerPacket(0x02, PacketAudioStop.class);
+		packet.registerPacket(0x01, PacketAudioData::new);
+		packet.registerPacket(0x02, PacketAudioStop::new);
 
-		packet.registerPacket(0x10, PacketNotification.class);
-		packet.registerPacket(0x11, PacketPoint.class);
+		packet.registerPacket(0x10, PacketNotification::new);
+		packet.registerPacket(0x11, PacketPoint::new);
 
-		packet.registerPacket(0x20, PacketCustomBlockDust.class);
+		packet.registerPacket(0x20, PacketCustomBlockDust::new);
 
-		packet.registerPacket(0x30, PacketRequestScroll.class);
+		packet.registerPacket(0x30, PacketRequestScroll::new);
 
 		MinecraftForge.EVENT_BUS.register(ShiftScrollHandler.INSTANCE);
 		MinecraftForge.EVENT_BUS.register(new DyeableItemWashHandler());
@@ -226,6 +232,8 @@ public class CharsetLib {
 
 		CommandCharset.register(new SubCommandHand());
 		CommandCharset.register(new SubCommandAt());
+		CommandCharset.register(new SubCommandPackets(Side.CLIENT));
+		CommandCharset.register(new SubCommandPackets(Side.SERVER));
 	}
 
 	@Mod.EventHandler
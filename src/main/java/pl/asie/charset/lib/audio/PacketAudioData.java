@@ -60,6 +60,13 @@ public class PacketAudioData extends Packet {
 		packet.writeData(buf);
 	}
 
+	@Override
+	public int estimateSize() {
+		int dataSize = packet.getData().getEncodedSize();
+		// sinks vary in size; 32 bytes covers a block sink
+		return dataSize >= 0 ? 12 + dataSize + packet.getSinks().size() * 32 : -1;
+	}
+
 	@Override
 	public boolean isAsynchronous() {
 		return false;
@@ -22,6 +22,8 @@
  */
 package pl.asie.charset.lib.audio.codec;
 
+import java.nio.ByteBuffer;
+
 /**
  * DFPWM1a^0x55 implementation in Java
  * operates on 8-bit signed PCM data and little-endian DFPWM data
@@ -30,10 +32,15 @@ package pl.asie.charset.lib.audio.codec;
  * also the main() function takes unsigned 8-bit data and converts it to suit
  */
 public class DFPWM implements ICodec {
-	private final int RESP_INC = 1;
-	private final int RESP_DEC = 1;
-	private final int RESP_PREC = 10;
-	private final int LPF_STRENGTH = 140;
+	private static final int RESP_INC = 1;
+	private static final int RESP_DEC = 1;
+	private static final int RESP_PREC = 10;
+	private static final int LPF_STRENGTH = 140;
+
+	private static final int RESP_MAX = (1<<RESP_PREC)-1;
+	private static final int RESP_MIN = RESP_PREC > 8 ? (2<<(RESP_PREC-8)) : 0;
+	private static final int RESP_ROUND = 1<<(RESP_PREC-1);
+	private static final int BUFFER_SIZE = 512;
 
 	private int response = 0;
 	private int level = 0;
@@ -44,80 +51,156 @@ public class DFPWM implements ICodec {
 
 	public DFPWM() {}
 
-	private void ctx_update(boolean curbit)
-	{
-		int target = (curbit ? 127 : -128);
-		int nlevel = (level + ((response*(target - level)
-				+ (1<<(RESP_PREC-1)))>>RESP_PREC));
-		if(nlevel == level && level != target)
-			nlevel += (curbit ? 1 : -1);
-
-		int rtarget, rdelta;
-		if(curbit == lastbit)
-		{
-			rtarget = (1<<RESP_PREC)-1;
-			rdelta = RESP_INC;
-		} else {
-			rtarget = 0;
-			rdelta = RESP_DEC;
-		}
-
-		int nresponse = response;
-		if(response != rtarget)
-			nresponse += (curbit == lastbit ? 1 : -1);
-
-		if(RESP_PREC > 8)
-		{
-			if(nresponse < (2<<(RESP_PREC-8)))
-				nresponse = (2<<(RESP_PREC-8));
-		}
-
-		response = nresponse;
-		lastbit = curbit;
-		level = nlevel;
-	}
+	// The context update is inlined into both loops below, with the state
+	// kept in locals; the output is bit-identical to the reference encoder.
 
 	public void decompress(byte[] dest, byte[] src, int destoffs, int srcoffs, int len)
 	{
+		int response = this.response;
+		int level = this.level;
+		boolean lastbit = this.lastbit;
+		int flastlevel = this.flastlevel;
+		int lpflevel = this.lpflevel;
+
 		for(int i = 0; i < len; i++)
 		{
-			byte d = (byte) (src[srcoffs++] ^ 0x55);
+			int d = src[srcoffs++] ^ 0x55;
 			for(int j = 0; j < 8; j++)
 			{
-				// apply context
 				boolean curbit = ((d&1) != 0);
-				boolean lastbit = this.lastbit;
-				ctx_update(curbit);
+				boolean same = curbit == lastbit;
 				d >>= 1;
 
+				// apply context
+				int target = (curbit ? 127 : -128);
+				int nlevel = level + ((response*(target - level) + RESP_ROUND)>>RESP_PREC);
+				if(nlevel == level && level != target)
+					nlevel += (curbit ? 1 : -1);
+
+				if(same)
+				{
+					if(response != RESP_MAX)
+						response += RESP_INC;
+				} else if(response != 0) {
+					response -= RESP_DEC;
+				}
+				if(response < RESP_MIN)
+					response = RESP_MIN;
+
 				// apply noise shaping
-				int blevel = (byte)(curbit == lastbit
-						? level
-						: ((flastlevel + level + 1)>>1));
-				flastlevel = level;
+				int blevel = (byte)(same
+						? nlevel
+						: ((flastlevel + nlevel + 1)>>1));
+				flastlevel = nlevel;
+				level = nlevel;
+				lastbit = curbit;
 
 				// apply low-pass filter
 				lpflevel += ((LPF_STRENGTH * (blevel - lpflevel) + 0x80)>>8);
 				dest[destoffs++] = (byte)(lpflevel);
 			}
 		}
+
+		this.response = response;
+		this.level = level;
+		this.lastbit = lastbit;
+		this.flastlevel = flastlevel;
+		this.lpflevel = lpflevel;
 	}
 
 	public void compress(byte[] dest, byte[] src, int destoffs, int srcoffs, int len)
 	{
+		int response = this.response;
+		int level = this.level;
+		boolean lastbit = this.lastbit;
+
+		outer:
 		for(int i = 0; i < len; i++)
 		{
 			int d = 0;
 			for(int j = 0; j < 8; j++)
 			{
-				if (srcoffs >= src.length) return;
+				if (srcoffs >= src.length) break outer;
 				int inlevel = src[srcoffs++];
 				boolean curbit = (inlevel > level || (inlevel == level && level == 127));
 				d = (curbit ? (d>>1)+128 : d>>1);
-				ctx_update(curbit);
+
+				int target = (curbit ? 127 : -128);
+				int nlevel = level + ((response*(target - level) + RESP_ROUND)>>RESP_PREC);
+				if(nlevel == level && level != target)
+					nlevel += (curbit ? 1 : -1);
+
+				if(curbit == lastbit)
+				{
+					if(response != RESP_MAX)
+						response += RESP_INC;
+				} else if(response != 0) {
+					response -= RESP_DEC;
+				}
+				if(response < RESP_MIN)
+					response = RESP_MIN;
+
+				level = nlevel;
+				lastbit = curbit;
 			}
 			dest[destoffs++] = (byte) (d ^ 0x55);
 		}
+
+		this.response = response;
+		this.level = level;
+		this.lastbit = lastbit;
+	}
+
+	/**
+	 * Decodes as many whole DFPWM bytes as both buffers allow, advancing
+	 * their positions.
+	 */
+	public void decompress(ByteBuffer dest, ByteBuffer src)
+	{
+		int len = Math.min(src.remaining(), dest.remaining() >> 3);
+		if(src.hasArray() && dest.hasArray())
+		{
+			decompress(dest.array(), src.array(), dest.arrayOffset() + dest.position(), src.arrayOffset() + src.position(), len);
+			src.position(src.position() + len);
+			dest.position(dest.position() + (len << 3));
+		} else {
+			byte[] in = new byte[Math.min(len, BUFFER_SIZE)];
+			byte[] out = new byte[in.length << 3];
+			while(len > 0)
+			{
+				int chunk = Math.min(len, in.length);
+				src.get(in, 0, chunk);
+				decompress(out, in, 0, 0, chunk);
+				dest.put(out, 0, chunk << 3);
+				len -= chunk;
+			}
+		}
+	}
+
+	/**
+	 * Encodes as many groups of eight samples as both buffers allow,
+	 * advancing their positions.
+	 */
+	public void compress(ByteBuffer dest, ByteBuffer src)
+	{
+		int len = Math.min(src.remaining() >> 3, dest.remaining());
+		if(src.hasArray() && dest.hasArray())
+		{
+			compress(dest.array(), src.array(), dest.arrayOffset() + dest.position(), src.arrayOffset() + src.position(), len);
+			src.position(src.position() + (len << 3));
+			dest.position(dest.position() + len);
+		} else {
+			byte[] in = new byte[Math.min(len, BUFFER_SIZE) << 3];
+			byte[] out = new byte[in.length >> 3];
+			while(len > 0)
+			{
+				int chunk = Math.min(len, out.length);
+				src.get(in, 0, chunk << 3);
+				compress(out, in, 0, 0, chunk);
+				dest.put(out, 0, chunk);
+				len -= chunk;
+			}
+		}
 	}
 
 	public static void main(String[] args) throws Exception // FUCK THE POLICE
@@ -98,6 +98,11 @@ public class AudioDataDFPWM extends AudioData implements IAudioDataPCM {
         buf.writeBytes(data);
     }
 
+    @Override
+    public int getEncodedSize() {
+        return 5 + data.length;
+    }
+
     @Override
     protected void sendClient(AudioPacket packet) {
         AudioUtils.send(sourceId, packet);
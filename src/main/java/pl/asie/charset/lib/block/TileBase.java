@@ -52,8 +52,13 @@ public class TileBase extends TileEntity {
 		UNLOAD
 	};
 
+	// the type is sent as an unsigned byte; full packets carry the block
+	// metadata (0-15) there instead
+	static final int DELTA_PACKET_TYPE = 255;
+
 	private Map<String, Trait> traits;
 	private int lastComparatorValue = -1;
+	private boolean syncQueued, syncFull;
 
 	public TileBase() {
 		super();
@@ -146,6 +151,19 @@ public class TileBase extends TileEntity {
 		return compound;
 	}
 
+	/**
+	 * Write only the fields changed since the last sync. Returning null
+	 * sends the full update packet instead.
+	 */
+	@Nullable
+	public NBTTagCompound writeNBTDelta(NBTTagCompound compound) {
+		return null;
+	}
+
+	public void readNBTDelta(NBTTagCompound compound) {
+
+	}
+
 	@Override
 	public final SPacketUpdateTileEntity getUpdatePacket() {
 		return hasDataPacket() ? new SPacketUpdateTileEntity(getPos(), getBlockMetadata(), writeNBTData(new NBTTagCompound(), true)) : null;
@@ -161,10 +179,22 @@ public class TileBase extends TileEntity {
 	@Override
 	public final void onDataPacket(NetworkManager net, SPacketUpdateTileEntity pkt) {
 		if (pkt != null && pkt.getNbtCompound() != null) {
-			readNBTData(pkt.getNbtCompound(), true);
+			if (isDeltaPacket(pkt)) {
+				readNBTDelta(pkt.getNbtCompound());
+			} else {
+				readNBTData(pkt.getNbtCompound(), true);
+			}
 		}
 	}
 
+	static SPacketUpdateTileEntity createDeltaPacket(BlockPos pos, NBTTagCompound delta) {
+		return new SPacketUpdateTileEntity(pos, DELTA_PACKET_TYPE, delta);
+	}
+
+	static boolean isDeltaPacket(SPacketUpdateTileEntity pkt) {
+		return (pkt.getTileEntityType() & 0xFF) == DELTA_PACKET_TYPE;
+	}
+
 	@Override
 	public final void readFromNBT(NBTTagCompound compound) {
 		super.readFromNBT(compound);
@@ -244,6 +274,54 @@ public class TileBase extends TileEntity {
 		world.notifyBlockUpdate(pos, state, state, 3);
 	}
 
+	/**
+	 * Queue the tile's client data to be sent at the end of the tick.
+	 * Repeated calls within a tick result in a single packet.
+	 */
+	public void markBlockForSync() {
+		queueSync(true);
+	}
+
+	/**
+	 * As {@link #markBlockForSync()}, but allows the tile to send only
+	 * the data returned by {@link #writeNBTDelta(NBTTagCompound)}.
+	 */
+	public void markBlockForDeltaSync() {
+		queueSync(false);
+	}
+
+	private void queueSync(boolean full) {
+		if (world == null || world.isRemote) {
+			return;
+		}
+
+		syncFull |= full;
+		if (!syncQueued) {
+			syncQueued = true;
+			TileSyncService.INSTANCE.add(this);
+		}
+	}
+
+	@Nullable
+	SPacketUpdateTileEntity createSyncPacket() {
+		boolean full = syncFull;
+		syncQueued = false;
+		syncFull = false;
+
+		if (!hasDataPacket()) {
+			return null;
+		}
+
+		if (!full) {
+			NBTTagCompound delta = writeNBTDelta(new NBTTagCompound());
+			if (delta != null) {
+				return createDeltaPacket(getPos(), delta);
+			}
+		}
+
+		return getUpdatePacket();
+	}
+
 	public void markChunkDirty() {
 		world.markChunkDirty(pos, this);
 	}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.block;
+
+import net.minecraft.network.play.server.SPacketUpdateTileEntity;
+import net.minecraft.server.management.PlayerChunkMapEntry;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import java.util.*;
+
+/**
+ * Collects tile sync requests made during a world tick and sends at most
+ * one update packet per tile at the end of it.
+ */
+public class TileSyncService {
+	public static final TileSyncService INSTANCE = new TileSyncService();
+	private final Map<World, Set<TileBase>> pending = new WeakHashMap<>();
+
+	private TileSyncService() {
+
+	}
+
+	void add(TileBase tile) {
+		pending.computeIfAbsent(tile.getWorld(), k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(tile);
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		pending.remove(event.getWorld());
+	}
+
+	@SubscribeEvent
+	public void onWorldTick(TickEvent.WorldTickEvent event) {
+		if (event.phase == TickEvent.Phase.END && event.world instanceof WorldServer) {
+			Set<TileBase> tiles = pending.remove(event.world);
+			if (tiles != null) {
+				event.world.profiler.startSection("charset_tileSync");
+				for (TileBase tile : tiles) {
+					SPacketUpdateTileEntity packet = !tile.isInvalid() ? tile.createSyncPacket() : null;
+					if (packet != null) {
+						PlayerChunkMapEntry entry = ((WorldServer) event.world).getPlayerChunkMap().getEntry(tile.getPos().getX() >> 4, tile.getPos().getZ() >> 4);
+						if (entry != null) {
+							entry.sendPacket(packet);
+						}
+					}
+				}
+				event.world.profiler.endSection();
+			}
+		}
+	}
+}
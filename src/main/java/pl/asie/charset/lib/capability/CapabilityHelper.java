@@ -111,6 +111,10 @@ public final class CapabilityHelper {
         return null;
     }
 
+    public static boolean hasBlockProviders(IBlockState state) {
+        return blockProviders.containsRow(state.getBlock());
+    }
+
     public static <T> boolean hasBlockCapability(Capability<T> capability, IBlockState state) {
         return blockProviders.contains(state.getBlock(), capability);
     }
@@ -129,6 +133,14 @@ public final class CapabilityHelper {
         return null;
     }
 
+    public static <T> boolean has(CapabilityQuery query, IBlockAccess world, BlockPos pos, Capability<T> capability, EnumFacing facing, boolean blocks, boolean tiles, boolean entities) {
+        return query.apply(() -> has(world, pos, capability, facing, blocks, tiles, entities));
+    }
+
+    public static <T> T get(CapabilityQuery query, IBlockAccess world, BlockPos pos, Capability<T> capability, EnumFacing facing, boolean blocks, boolean tiles, boolean entities) {
+        return query.apply(() -> get(world, pos, capability, facing, blocks, tiles, entities));
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> boolean has(IBlockAccess world, BlockPos pos, Capability<T> capability, EnumFacing facing, boolean blocks, boolean tiles, boolean entities) {
         IBlockState state = world.getBlockState(pos);
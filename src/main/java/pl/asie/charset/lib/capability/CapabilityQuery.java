@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.capability;
+
+import mcmultipart.api.slot.IPartSlot;
+
+import javax.annotation.Nullable;
+import java.util.function.Supplier;
+
+/**
+ * Context for a capability lookup which cannot be passed through
+ * {@link net.minecraftforge.common.capabilities.ICapabilityProvider}
+ * itself, such as a wire asking its neighbours while ignoring other wires.
+ *
+ * The active query is tracked per thread and restored once a lookup
+ * finishes, so lookups may run on several threads and nest within one
+ * another.
+ */
+public final class CapabilityQuery {
+    public static final CapabilityQuery DEFAULT = new CapabilityQuery(false, null, null);
+    private static final ThreadLocal<CapabilityQuery> CURRENT = ThreadLocal.withInitial(() -> DEFAULT);
+
+    private final boolean ignoreWires;
+    private final Object requester;
+    private final IPartSlot slot;
+
+    private CapabilityQuery(boolean ignoreWires, @Nullable Object requester, @Nullable IPartSlot slot) {
+        this.ignoreWires = ignoreWires;
+        this.requester = requester;
+        this.slot = slot;
+    }
+
+    public static CapabilityQuery of(boolean ignoreWires, @Nullable Object requester, @Nullable IPartSlot slot) {
+        if (!ignoreWires && requester == null && slot == null) {
+            return DEFAULT;
+        } else {
+            return new CapabilityQuery(ignoreWires, requester, slot);
+        }
+    }
+
+    /**
+     * @return The query active on the calling thread.
+     */
+    public static CapabilityQuery current() {
+        return CURRENT.get();
+    }
+
+    public boolean ignoresWires() {
+        return ignoreWires;
+    }
+
+    @Nullable
+    public Object getRequester() {
+        return requester;
+    }
+
+    @Nullable
+    public IPartSlot getSlot() {
+        return slot;
+    }
+
+    /**
+     * Runs the given lookup with this query active on the calling thread.
+     */
+    public <T> T apply(Supplier<T> lookup) {
+        CapabilityQuery previous = CURRENT.get();
+        if (previous == this) {
+            return lookup.get();
+        }
+
+        CURRENT.set(this);
+        try {
+            return lookup.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
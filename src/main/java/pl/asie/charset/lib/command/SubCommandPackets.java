@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.command;
+
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextFormatting;
+import net.minecraftforge.fml.relauncher.Side;
+import pl.asie.charset.lib.network.Packet;
+import pl.asie.charset.lib.network.PacketRegistry;
+import pl.asie.charset.lib.network.PacketStatistics;
+
+import java.util.Collections;
+import java.util.List;
+
+public class SubCommandPackets extends SubCommand {
+    public SubCommandPackets(Side side) {
+        super("packets", side);
+    }
+
+    @Override
+    public String getUsage() {
+        return "Show packet traffic counters for Charset channels.\nUse 'reset' to clear them.";
+    }
+
+    @Override
+    public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args) {
+        return args.length == 1 ? Collections.singletonList("reset") : Collections.emptyList();
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) {
+        if (args.length >= 1 && "reset".equalsIgnoreCase(args[0])) {
+            for (PacketRegistry registry : PacketRegistry.getRegistries()) {
+                registry.getStatistics().reset();
+            }
+            sender.sendMessage(new TextComponentString("Packet counters reset."));
+            return;
+        }
+
+        for (PacketRegistry registry : PacketRegistry.getRegistries()) {
+            PacketStatistics stats = registry.getStatistics();
+            boolean headerSent = false;
+
+            for (int i = 0; i < 256; i++) {
+                Class<? extends Packet> packetClass = registry.getPacketClass(i);
+                if (packetClass == null || (stats.getSent(i) == 0 && stats.getReceived(i) == 0)) {
+                    continue;
+                }
+
+                if (!headerSent) {
+                    sender.sendMessage(new TextComponentString(TextFormatting.BOLD + registry.getChannelName()));
+                    headerSent = true;
+                }
+
+                sender.sendMessage(new TextComponentString(String.format("- %s: sent %d (%d bytes, %d allocs), received %d (%d bytes)",
+                        packetClass.getSimpleName(), stats.getSent(i), stats.getSentBytes(i), stats.getAllocations(i),
+                        stats.getReceived(i), stats.getReceivedBytes(i))));
+            }
+        }
+    }
+}
@@ -46,7 +46,9 @@ import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 public class ModuleLoader {
 	public static final Set<String> CATEGORIES_OFF_BY_DEFAULT = Sets.newHashSet("overhaul", "pony");
@@ -90,6 +92,8 @@ public class ModuleLoader {
 	private static final Map<String, EnableInformation> enableInfoMap = new HashMap<>();
 
 	private static final Joiner joinerComma = Joiner.on(", ");
+	private static final long SLOW_HANDLER_NANOS = 50_000_000L;
+	private static final int SLOW_HANDLER_LOG_COUNT = 5;
 
 	private final ClassLoader classLoader = getClass().getClassLoader();
 
@@ -425,10 +429,8 @@ public class ModuleLoader {
 			}
 
 			try {
-				MethodHandle methodHandle = MethodHandles.lookup().findVirtual(getClass(data), methodName, methodType);
+				MethodHandle methodHandle = MethodHandles.lookup().findVirtual(getClass(data), methodName, methodType).bindTo(instance);
 				List<Pair<String, MethodHandle>> list = loaderHandles.computeIfAbsent(methodType.parameterType(0), k -> new ArrayList<>());
-				list.sort(Comparator.comparing(Pair::getLeft));
-
 				list.add(Pair.of(loadedModules.inverse().get(instance), methodHandle));
 			} catch (NoSuchMethodException e) {
 				// method has been annotated away, ignore
@@ -462,18 +464,30 @@ public class ModuleLoader {
 			}
 		});
 
+		// Configuration files are independent of one another, so they are
+		// read and parsed in parallel; the fields are assigned afterwards.
+		Map<String, CompletableFuture<Configuration>> configFutures = new HashMap<>();
+		List<Pair<ASMDataTable.ASMData, Object>> configTargets = new ArrayList<>();
+		List<String> configIds = new ArrayList<>();
 		iterateModules(table, CharsetModule.Configuration.class.getName(), (data, instance) -> {
 			String id = (String) data.getAnnotationInfo().get("value");
 			if (id == null) id = loadedModules.inverse().get(instance);
 
+			configFutures.computeIfAbsent(id, k -> CompletableFuture.supplyAsync(() -> new Configuration(ModCharset.getModuleConfigFile(k))));
+			configTargets.add(Pair.of(data, instance));
+			configIds.add(id);
+		});
+
+		for (int i = 0; i < configTargets.size(); i++) {
+			String id = configIds.get(i);
 			try {
-				Configuration config = new Configuration(ModCharset.getModuleConfigFile(id));
-				getField(data).set(instance, config);
+				Configuration config = configFutures.get(id).join();
+				getField(configTargets.get(i).getKey()).set(configTargets.get(i).getValue(), config);
 				moduleConfigs.put(id, config);
 			} catch (Exception e) {
 				throw new RuntimeException(e);
 			}
-		});
+		}
 
 		Side side = FMLCommonHandler.instance().getSide();
 		for (ASMDataTable.ASMData data : table.getAll(CharsetModule.SidedProxy.class.getName())) {
@@ -487,37 +501,14 @@ public class ModuleLoader {
 			}
 		}
 
-		List<String> sortedModules = new ArrayList<>();
-		Set<String> remainingModules = Sets.newHashSet(enabledModules);
-		while (!remainingModules.isEmpty()) {
-			Iterator<String> remainingIterator = remainingModules.iterator();
-			boolean added = false;
-
-			while (remainingIterator.hasNext()) {
-				String s = remainingIterator.next();
-				boolean canAdd = true;
-
-				for (String dep : dependencies.get(s)) {
-					if (!dep.startsWith("mod:") && !dep.startsWith("optional:") && !sortedModules.contains(dep)) {
-						canAdd = false;
-						break;
-					}
-				}
-
-				if (canAdd) {
-					added = true;
-					sortedModules.add(s);
-					remainingIterator.remove();
-				}
-			}
-
-			if (!added) {
-				throw new RuntimeException("Cyclic dependency within Charset modules! Report!");
-			}
+		List<String> sortedModules = sortModules(enabledModules);
+		Map<String, Integer> moduleOrder = new HashMap<>();
+		for (int i = 0; i < sortedModules.size(); i++) {
+			moduleOrder.put(sortedModules.get(i), i);
 		}
 
 		for (List<Pair<String, MethodHandle>> list : loaderHandles.values()) {
-			list.sort(Comparator.comparingInt(a -> sortedModules.indexOf(a.getKey())));
+			list.sort(Comparator.comparingInt(a -> moduleOrder.get(a.getKey())));
 		}
 
 		for (String s : sortedModules) {
@@ -548,18 +539,92 @@ public class ModuleLoader {
 		}
 	}
 
+	/**
+	 * Orders modules so that each comes after its hard dependencies, using
+	 * an explicit dependency graph. Ties are broken by name, keeping the
+	 * order stable between launches.
+	 */
+	private List<String> sortModules(Set<String> enabledModules) {
+		Map<String, List<String>> dependents = new HashMap<>();
+		Map<String, Integer> inDegree = new HashMap<>();
+
+		for (String name : enabledModules) {
+			int degree = 0;
+			for (String dep : dependencies.get(name)) {
+				if (!dep.startsWith("mod:") && !dep.startsWith("optional:") && enabledModules.contains(dep)) {
+					dependents.computeIfAbsent(dep, k -> new ArrayList<>()).add(name);
+					degree++;
+				}
+			}
+			inDegree.put(name, degree);
+		}
+
+		PriorityQueue<String> ready = new PriorityQueue<>();
+		for (Map.Entry<String, Integer> entry : inDegree.entrySet()) {
+			if (entry.getValue() == 0) {
+				ready.add(entry.getKey());
+			}
+		}
+
+		List<String> sortedModules = new ArrayList<>(enabledModules.size());
+		while (!ready.isEmpty()) {
+			String name = ready.remove();
+			sortedModules.add(name);
+
+			for (String dependent : dependents.getOrDefault(name, Collections.emptyList())) {
+				if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+					ready.add(dependent);
+				}
+			}
+		}
+
+		if (sortedModules.size() != enabledModules.size()) {
+			throw new RuntimeException("Cyclic dependency within Charset modules! Report!");
+		}
+
+		return sortedModules;
+	}
+
 	public void passEvent(FMLEvent o) {
 		Class<? extends FMLEvent> c = o.getClass();
 		List<Pair<String, MethodHandle>> list = loaderHandles.get(c);
 		if (list != null) {
+			Map<String, Long> timings = new HashMap<>();
+			long start = System.nanoTime();
+
 			for (Pair<String, MethodHandle> pair : list) {
+				long handlerStart = System.nanoTime();
 				try {
-					pair.getValue().invoke(loadedModules.get(pair.getKey()), o);
+					pair.getValue().invoke(o);
 				} catch (Throwable t) {
 					t.printStackTrace();
 					throw new RuntimeException(t);
 				}
+				timings.merge(pair.getKey(), System.nanoTime() - handlerStart, Long::sum);
 			}
+
+			logTimings(c.getSimpleName(), System.nanoTime() - start, timings);
+		}
+	}
+
+	private void logTimings(String phase, long total, Map<String, Long> timings) {
+		if (ModCharset.INDEV) {
+			for (Map.Entry<String, Long> entry : timings.entrySet()) {
+				ModCharset.logger.info(phase + ": module " + entry.getKey() + " took " + (entry.getValue() / 1000000) + " ms");
+			}
+		}
+
+		List<String> slowest = timings.entrySet().stream()
+				.filter(e -> e.getValue() >= SLOW_HANDLER_NANOS)
+				.sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+				.limit(SLOW_HANDLER_LOG_COUNT)
+				.map(e -> e.getKey() + " (" + (e.getValue() / 1000000) + " ms)")
+				.collect(Collectors.toList());
+
+		if (!slowest.isEmpty()) {
+			ModCharset.logger.info(phase + " took " + (total / 1000000) + " ms; slowest modules: " + joinerComma.join(slowest));
+		} else {
+			ModCharset.logger.debug(phase + " took " + (total / 1000000) + " ms");
 		}
 	}
 
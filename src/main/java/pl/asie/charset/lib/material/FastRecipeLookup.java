@@ -34,6 +34,7 @@ import net.minecraft.world.World;
 import net.minecraftforge.common.crafting.IShapedRecipe;
 import net.minecraftforge.common.crafting.IngredientNBT;
 import net.minecraftforge.fml.common.registry.ForgeRegistries;
+import net.minecraftforge.oredict.OreIngredient;
 import net.minecraftforge.oredict.ShapedOreRecipe;
 import net.minecraftforge.oredict.ShapelessOreRecipe;
 import pl.asie.charset.lib.recipe.RecipeCharset;
@@ -86,12 +87,133 @@ public class FastRecipeLookup {
 		}
 	}
 
+	private static final class GridKey {
+		private final int[] data;
+		private final int hash;
+
+		GridKey(int[] data) {
+			this.data = data;
+			this.hash = Arrays.hashCode(data);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof GridKey && ((GridKey) o).hash == hash && Arrays.equals(((GridKey) o).data, data);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	// a memoized miss only rules out recipes which are trusted: their result
+	// depends on nothing but the item IDs and metadata which make up the key
+	private static final int MEMO_SIZE = 1024;
+	private static final IRecipe NO_MATCH = new ShapelessRecipes("", ItemStack.EMPTY, NonNullList.create());
+	private static final Map<GridKey, IRecipe> memo = new LinkedHashMap<GridKey, IRecipe>(MEMO_SIZE, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<GridKey, IRecipe> eldest) {
+			return size() > MEMO_SIZE;
+		}
+	};
+
 	private static List<Collection<IRecipe>> recipeLists = new ArrayList<>();
 	private static TIntObjectMap<Collection<IRecipe>> shapelessOneElement = new TIntObjectHashMap<>();
+	// shaped recipes by the item ID of their first non-empty cell, per shape
+	private static List<TIntObjectMap<List<IRecipe>>> shapedByFirstItem = new ArrayList<>();
+	private static List<List<IRecipe>> shapedUnindexed = new ArrayList<>();
+	private static Set<IRecipe> trustedRecipes = Collections.newSetFromMap(new IdentityHashMap<>());
 
 	public static void clearRecipeLists() {
 		recipeLists.clear();
 		shapelessOneElement.clear();
+		shapedByFirstItem.clear();
+		shapedUnindexed.clear();
+		trustedRecipes.clear();
+		synchronized (memo) {
+			memo.clear();
+		}
+	}
+
+	private static boolean isIndexable(Ingredient ing) {
+		Class c = ing.getClass();
+		return c == Ingredient.class || c == IngredientNBT.class || c == OreIngredient.class;
+	}
+
+	private static boolean isTrusted(IRecipe recipe) {
+		if (!saneClasses.contains(recipe.getClass())) {
+			return false;
+		}
+
+		for (Ingredient ing : recipe.getIngredients()) {
+			// IngredientNBT is left out, as only the tag's hash is part of the key
+			if (ing != Ingredient.EMPTY && ing.getClass() != Ingredient.class && ing.getClass() != OreIngredient.class) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean matches(IRecipe recipe, InventoryCrafting craftMatrix, World worldIn, boolean untrustedOnly) {
+		return (!untrustedOnly || !trustedRecipes.contains(recipe)) && recipe.matches(craftMatrix, worldIn);
+	}
+
+	private static void addShaped(IRecipe recipe, int wh, int width) {
+		TIntObjectMap<List<IRecipe>> index = shapedByFirstItem.get(wh);
+		List<IRecipe> unindexed = shapedUnindexed.get(wh);
+		NonNullList<Ingredient> ingredients = recipe.getIngredients();
+
+		// the top row is never empty; consider both the first and the last
+		// cell in it, as the recipe may be mirrored
+		Ingredient first = null, last = null;
+		for (int i = 0; i < width; i++) {
+			if (ingredients.get(i) != Ingredient.EMPTY) {
+				if (first == null) {
+					first = ingredients.get(i);
+				}
+				last = ingredients.get(i);
+			}
+		}
+
+		if (first == null || !isIndexable(first) || !isIndexable(last)) {
+			// keep the original order in every bucket
+			unindexed.add(recipe);
+			index.forEachValue((list) -> list.add(recipe));
+			return;
+		}
+
+		TIntSet ids = new TIntHashSet();
+		for (ItemStack stack : first.getMatchingStacks()) {
+			ids.add(toIntIdentifier(stack));
+		}
+		for (ItemStack stack : last.getMatchingStacks()) {
+			ids.add(toIntIdentifier(stack));
+		}
+
+		ids.forEach((id) -> {
+			List<IRecipe> list = index.get(id);
+			if (list == null) {
+				list = new ArrayList<>(unindexed);
+				index.put(id, list);
+			}
+			list.add(recipe);
+			return true;
+		});
+	}
+
+	private static Collection<IRecipe> getShapedCandidates(int wh, InventoryCrafting craftMatrix) {
+		ItemStack first = ItemStack.EMPTY;
+		for (int i = 0; i < craftMatrix.getWidth(); i++) {
+			first = craftMatrix.getStackInRowAndColumn(i, 0);
+			if (!first.isEmpty()) {
+				break;
+			}
+		}
+
+		List<IRecipe> list = shapedByFirstItem.get(wh).get(toIntIdentifier(first));
+		return list != null ? list : shapedUnindexed.get(wh);
 	}
 
 	private static void addShapelessOneElement(IRecipe recipe, int i) {
@@ -133,6 +255,10 @@ public class FastRecipeLookup {
 	}
 
 	public static void initRecipeLists() {
+		initRecipeLists(ForgeRegistries.RECIPES);
+	}
+
+	static void initRecipeLists(Iterable<IRecipe> recipes) {
 		if (!ENABLED) {
 			return;
 		}
@@ -146,7 +272,16 @@ public class FastRecipeLookup {
 				recipeLists.add(new ArrayList<>());
 			}
 
-			for (IRecipe irecipe : ForgeRegistries.RECIPES) {
+			for (int i = 0; i < 9; i++) {
+				shapedByFirstItem.add(new TIntObjectHashMap<>());
+				shapedUnindexed.add(new ArrayList<>());
+			}
+
+			for (IRecipe irecipe : recipes) {
+				if (isTrusted(irecipe)) {
+					trustedRecipes.add(irecipe);
+				}
+
 				Class c = irecipe.getClass();
 				if (saneClasses.contains(c)) {
 					if (irecipe instanceof IShapedRecipe) {
@@ -199,6 +334,7 @@ public class FastRecipeLookup {
 							} else {
 								int wh = (width - 1) * 3 + (height - 1);
 								recipeLists.get(9 + wh).add(irecipe);
+								addShaped(irecipe, wh, width);
 							}
 						}
 					} else {
@@ -350,6 +486,47 @@ public class FastRecipeLookup {
 			}
 		}
 
+		GridKey key = createKey(craftMatrix, x, y, width, height);
+		IRecipe cached;
+		synchronized (memo) {
+			cached = memo.get(key);
+		}
+
+		if (cached == NO_MATCH) {
+			return findMatchingRecipeTrimmed(craftMatrix, x, y, width, height, worldIn, true);
+		} else if (cached != null && cached.matches(craftMatrix, worldIn)) {
+			return cached;
+		}
+
+		IRecipe result = findMatchingRecipeTrimmed(craftMatrix, x, y, width, height, worldIn, false);
+		synchronized (memo) {
+			memo.put(key, result != null ? result : NO_MATCH);
+		}
+		return result;
+	}
+
+	private static GridKey createKey(InventoryCrafting craftMatrix, int x, int y, int width, int height) {
+		// the offset is kept, as some recipes care about where in the grid they are
+		int[] data = new int[3 + width * height * 3];
+		data[0] = craftMatrix.getWidth() | (craftMatrix.getHeight() << 8);
+		data[1] = x | (y << 8);
+		data[2] = width | (height << 8);
+		int i = 3;
+		for (int iy = 0; iy < height; iy++) {
+			for (int ix = 0; ix < width; ix++) {
+				ItemStack stack = craftMatrix.getStackInRowAndColumn(x + ix, y + iy);
+				if (!stack.isEmpty()) {
+					data[i] = toIntIdentifier(stack);
+					data[i + 1] = stack.getMetadata();
+					data[i + 2] = stack.hasTagCompound() ? stack.getTagCompound().hashCode() : 0;
+				}
+				i += 3;
+			}
+		}
+		return new GridKey(data);
+	}
+
+	private static IRecipe findMatchingRecipeTrimmed(InventoryCrafting craftMatrix, int x, int y, int width, int height, World worldIn, boolean untrustedOnly) {
 		// create trimmed matrix
 		if (width == craftMatrix.getWidth() && height == craftMatrix.getHeight()) {
 			int nonEmptyStacks = 0;
@@ -361,7 +538,7 @@ public class FastRecipeLookup {
 					}
 				}
 			}
-			return findMatchingRecipeQuickly(false, nonEmptyStacks, craftMatrix, craftMatrix, worldIn);
+			return findMatchingRecipeQuickly(false, nonEmptyStacks, craftMatrix, craftMatrix, worldIn, untrustedOnly);
 		} else {
 			InventoryCrafting craftingTrimmed = RecipeUtils.getCraftingInventory(width, height, RecipeUtils.getContainer(craftMatrix));
 			int nonEmptyStacks = 0;
@@ -374,7 +551,7 @@ public class FastRecipeLookup {
 					craftingTrimmed.setInventorySlotContents(iy * width + ix, stack);
 				}
 			}
-			return findMatchingRecipeQuickly(false, nonEmptyStacks, craftingTrimmed, craftMatrix, worldIn);
+			return findMatchingRecipeQuickly(false, nonEmptyStacks, craftingTrimmed, craftMatrix, worldIn, untrustedOnly);
 		}
 	}
 
@@ -383,6 +560,10 @@ public class FastRecipeLookup {
 	}
 
 	protected static IRecipe findMatchingRecipeQuickly(boolean noShapeless, int nonEmptyStacks, InventoryCrafting craftMatrix, @Nullable InventoryCrafting craftMatrixUntrimmed, World worldIn) {
+		return findMatchingRecipeQuickly(noShapeless, nonEmptyStacks, craftMatrix, craftMatrixUntrimmed, worldIn, false);
+	}
+
+	private static IRecipe findMatchingRecipeQuickly(boolean noShapeless, int nonEmptyStacks, InventoryCrafting craftMatrix, @Nullable InventoryCrafting craftMatrixUntrimmed, World worldIn, boolean untrustedOnly) {
 		if (!ENABLED) {
 			return CraftingManager.findMatchingRecipe(craftMatrix, worldIn);
 		}
@@ -394,8 +575,8 @@ public class FastRecipeLookup {
 
 		// shaped tree
 		if ((width * height) >= 2) {
-			for (IRecipe irecipe : recipeLists.get(9 + (width - 1) * 3 + (height - 1))) {
-				if (irecipe.matches(craftMatrix, worldIn)) {
+			for (IRecipe irecipe : getShapedCandidates((width - 1) * 3 + (height - 1), craftMatrix)) {
+				if (matches(irecipe, craftMatrix, worldIn, untrustedOnly)) {
 					return irecipe;
 				}
 			}
@@ -411,20 +592,20 @@ public class FastRecipeLookup {
 			Collection<IRecipe> list = shapelessOneElement.get(toIntIdentifier(stack));
 			if (list != null) {
 				for (IRecipe recipe : list) {
-					if (recipe.matches(craftMatrix, worldIn)) {
+					if (matches(recipe, craftMatrix, worldIn, untrustedOnly)) {
 						return recipe;
 					}
 				}
 			}
 
 			for (IRecipe recipe : recipeLists.get(0)) {
-				if (recipe.matches(craftMatrix, worldIn)) {
+				if (matches(recipe, craftMatrix, worldIn, untrustedOnly)) {
 					return recipe;
 				}
 			}
 		} else if (!noShapeless && nonEmptyStacks > 1) {
 			for (IRecipe irecipe : recipeLists.get(nonEmptyStacks - 1)) {
-				if (irecipe.matches(craftMatrix, worldIn)) {
+				if (matches(irecipe, craftMatrix, worldIn, untrustedOnly)) {
 					return irecipe;
 				}
 			}
@@ -438,7 +619,7 @@ public class FastRecipeLookup {
 					continue;
 				}
 
-				if (irecipe.matches(craftMatrix, worldIn)) {
+				if (matches(irecipe, craftMatrix, worldIn, untrustedOnly)) {
 					return irecipe;
 				}
 			}
@@ -453,7 +634,7 @@ public class FastRecipeLookup {
 					continue;
 				}
 
-				if (irecipe.matches(craftMatrixWeird, worldIn)) {
+				if (matches(irecipe, craftMatrixWeird, worldIn, untrustedOnly)) {
 					return irecipe;
 				}
 			}
@@ -461,7 +642,7 @@ public class FastRecipeLookup {
 
 		// and finally, the true oddballs
 		for (IRecipe irecipe : recipeLists.get(27)) {
-			if (irecipe.matches(craftMatrixWeird, worldIn)) {
+			if (matches(irecipe, craftMatrixWeird, worldIn, untrustedOnly)) {
 				return irecipe;
 			}
 		}
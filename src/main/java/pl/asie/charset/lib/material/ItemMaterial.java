@@ -28,12 +28,15 @@ public final class ItemMaterial {
 	private final ItemStack stack;
 
 	private final transient String id;
+	final transient int tagHash;
+	transient int index = -1;
 	private final transient Set<String> types;
 	private final transient Map<String, ItemMaterial> relations;
 
 	protected ItemMaterial(ItemStack stack) {
 		this.stack = stack;
 		this.id = ItemMaterialRegistry.createId(stack);
+		this.tagHash = stack.hasTagCompound() ? stack.getTagCompound().hashCode() : 0;
 		this.types = new HashSet<>();
 		this.relations = new HashMap<>();
 	}
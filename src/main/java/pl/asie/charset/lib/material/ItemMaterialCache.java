@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.material;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.fml.common.Loader;
+import net.minecraftforge.fml.common.ModContainer;
+import net.minecraftforge.fml.common.registry.ForgeRegistries;
+import net.minecraftforge.oredict.OreDictionary;
+import pl.asie.charset.ModCharset;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Persists the result of the material heuristics, keyed by a hash of
+ * everything the heuristics read: loaded mods, items, recipes and the
+ * ore dictionary.
+ */
+final class ItemMaterialCache {
+	private static final int VERSION = 1;
+
+	private ItemMaterialCache() {
+
+	}
+
+	private static void update(MessageDigest digest, String s) {
+		digest.update(s.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+	private static void update(MessageDigest digest, ItemStack stack) {
+		if (stack.isEmpty()) {
+			update(digest, "");
+		} else {
+			update(digest, stack.getCount() + "x" + ItemMaterialRegistry.createId(stack));
+		}
+	}
+
+	private static List<String> sortedKeys(Collection<ResourceLocation> keys) {
+		List<String> list = new ArrayList<>(keys.size());
+		for (ResourceLocation location : keys) {
+			list.add(location.toString());
+		}
+		Collections.sort(list);
+		return list;
+	}
+
+	static String computeHash() {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+
+		update(digest, Integer.toString(VERSION));
+		for (ModContainer container : Loader.instance().getActiveModList()) {
+			update(digest, container.getModId());
+			update(digest, container.getVersion());
+		}
+
+		for (String s : sortedKeys(ForgeRegistries.ITEMS.getKeys())) {
+			update(digest, s);
+		}
+
+		// recipe names alone miss scripted edits (CraftTweaker and the like)
+		// which keep a name but change what the recipe takes or makes
+		for (String s : sortedKeys(ForgeRegistries.RECIPES.getKeys())) {
+			update(digest, s);
+			IRecipe recipe = ForgeRegistries.RECIPES.getValue(new ResourceLocation(s));
+			if (recipe != null) {
+				update(digest, recipe.getClass().getName());
+				update(digest, recipe.getRecipeOutput());
+				for (Ingredient ingredient : recipe.getIngredients()) {
+					update(digest, ingredient.getClass().getName());
+					for (ItemStack stack : ingredient.getMatchingStacks()) {
+						update(digest, stack);
+					}
+				}
+			}
+		}
+
+		for (String oreName : OreDictionary.getOreNames()) {
+			update(digest, oreName);
+			for (ItemStack stack : OreDictionary.getOres(oreName, false)) {
+				if (!stack.isEmpty()) {
+					update(digest, ItemMaterialRegistry.createId(stack));
+				}
+			}
+		}
+
+		StringBuilder builder = new StringBuilder();
+		for (byte b : digest.digest()) {
+			builder.append(String.format("%02x", b));
+		}
+		return builder.toString();
+	}
+
+	static boolean load(File file, String hash, ItemMaterialRegistry registry) {
+		if (hash == null || !file.isFile()) {
+			return false;
+		}
+
+		try {
+			NBTTagCompound compound = CompressedStreamTools.read(file);
+			if (compound == null || compound.getInteger("version") != VERSION || !hash.equals(compound.getString("hash"))) {
+				return false;
+			}
+
+			NBTTagList stackList = compound.getTagList("materials", Constants.NBT.TAG_COMPOUND);
+			ItemStack[] stacks = new ItemStack[stackList.tagCount()];
+			for (int i = 0; i < stacks.length; i++) {
+				stacks[i] = new ItemStack(stackList.getCompoundTagAt(i));
+				if (stacks[i].isEmpty()) {
+					return false;
+				}
+			}
+
+			ItemMaterial[] materials = new ItemMaterial[stacks.length];
+			for (int i = 0; i < stacks.length; i++) {
+				materials[i] = registry.getOrCreateMaterial(stacks[i]);
+			}
+
+			NBTTagCompound types = compound.getCompoundTag("types");
+			for (String type : types.getKeySet()) {
+				for (int i : types.getIntArray(type)) {
+					registry.registerType(materials[i], type);
+				}
+			}
+
+			NBTTagList relations = compound.getTagList("relations", Constants.NBT.TAG_COMPOUND);
+			for (int i = 0; i < relations.tagCount(); i++) {
+				NBTTagCompound relation = relations.getCompoundTagAt(i);
+				registry.registerRelation(materials[relation.getInteger("s")], materials[relation.getInteger("t")], relation.getString("r"));
+			}
+
+			return true;
+		} catch (IOException | RuntimeException e) {
+			ModCharset.logger.warn("Could not read material cache " + file.getName() + "!", e);
+			return false;
+		}
+	}
+
+	static void save(File file, String hash, ItemMaterialRegistry registry) {
+		if (hash == null) {
+			return;
+		}
+
+		Map<ItemMaterial, Integer> indices = new IdentityHashMap<>();
+		NBTTagList stackList = new NBTTagList();
+		for (ItemMaterial material : registry.getAllMaterials()) {
+			indices.put(material, indices.size());
+			stackList.appendTag(material.getStack().writeToNBT(new NBTTagCompound()));
+		}
+
+		// per-type lists are written in registration order, as the first
+		// entry is used as the default material for a type
+		NBTTagCompound types = new NBTTagCompound();
+		for (String type : registry.getAllTypes()) {
+			Collection<ItemMaterial> materials = registry.getMaterialsByType(type);
+			int[] array = new int[materials.size()];
+			int i = 0;
+			for (ItemMaterial material : materials) {
+				array[i++] = indices.get(material);
+			}
+			types.setIntArray(type, array);
+		}
+
+		NBTTagList relations = new NBTTagList();
+		for (ItemMaterial material : registry.getAllMaterials()) {
+			for (Map.Entry<String, ItemMaterial> entry : material.getRelations().entrySet()) {
+				Integer target = indices.get(entry.getValue());
+				if (target != null) {
+					NBTTagCompound relation = new NBTTagCompound();
+					relation.setInteger("s", indices.get(material));
+					relation.setInteger("t", target);
+					relation.setString("r", entry.getKey());
+					relations.appendTag(relation);
+				}
+			}
+		}
+
+		NBTTagCompound compound = new NBTTagCompound();
+		compound.setInteger("version", VERSION);
+		compound.setString("hash", hash);
+		compound.setTag("materials", stackList);
+		compound.setTag("types", types);
+		compound.setTag("relations", relations);
+
+		try {
+			CompressedStreamTools.safeWrite(compound, file);
+		} catch (IOException e) {
+			ModCharset.logger.warn("Could not write material cache " + file.getName() + "!", e);
+		}
+	}
+}
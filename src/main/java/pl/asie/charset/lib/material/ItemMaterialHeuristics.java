@@ -39,6 +39,7 @@ import net.minecraftforge.oredict.OreDictionary;
 import net.minecraftforge.oredict.ShapedOreRecipe;
 import net.minecraftforge.oredict.ShapelessOreRecipe;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import pl.asie.charset.ModCharset;
 import pl.asie.charset.lib.CharsetLib;
 import pl.asie.charset.lib.recipe.RecipeCharset;
@@ -51,14 +52,19 @@ import java.io.PrintWriter;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 public final class ItemMaterialHeuristics {
+    private interface StackScanner {
+        void scan(ItemMaterialRegistry reg, String oreName, ItemStack stack);
+    }
+
+    public static boolean CACHE_ENABLED = true;
     private static int initPhase = 0;
-    private static ItemMaterialRegistry reg;
 
     private ItemMaterialHeuristics() {
 
@@ -72,7 +78,7 @@ public final class ItemMaterialHeuristics {
         return !stack.isEmpty() && (stack.getItem() instanceof ItemBlock || Block.getBlockFromItem(stack.getItem()) != Blocks.AIR);
     }
 
-    private static void addResultingBlock(ItemMaterial base, ItemStack result, String source, String target) {
+    private static void addResultingBlock(ItemMaterialRegistry reg, ItemMaterial base, ItemStack result, String source, String target) {
         if (!result.isEmpty()) {
             result.setCount(1);
             ItemMaterial slabMaterial = reg.getOrCreateMaterial(result);
@@ -87,31 +93,25 @@ public final class ItemMaterialHeuristics {
         }
     }
 
-    private static void findSlab(ItemMaterial base) {
+    private static ItemStack findSlab(ItemMaterial base) {
         if (!base.getTypes().contains("block") || base.getRelated("slab") != null)
-            return;
+            return ItemStack.EMPTY;
 
-        ItemStack slab = FastRecipeLookup.getCraftingResultQuickly(true, 3, null, 3, 1,
+        return FastRecipeLookup.getCraftingResultQuickly(true, 3, null, 3, 1,
                 base.getStack(), base.getStack(), base.getStack());
-        if (isBlock(slab)) {
-            addResultingBlock(base, slab, "block", "slab");
-        }
     }
 
-    private static void findStair(ItemMaterial base) {
+    private static ItemStack findStair(ItemMaterial base) {
         if (!base.getTypes().contains("block") || base.getRelated("stairs") != null)
-            return;
+            return ItemStack.EMPTY;
 
-        ItemStack stair = FastRecipeLookup.getCraftingResultQuickly(true, 6, null, 3, 3,
+        return FastRecipeLookup.getCraftingResultQuickly(true, 6, null, 3, 3,
                 base.getStack(), null, null,
                 base.getStack(), base.getStack(), null,
                 base.getStack(), base.getStack(), base.getStack());
-        if (isBlock(stair)) {
-            addResultingBlock(base, stair, "block", "stairs");
-        }
     }
 
-    private static void initLogMaterial(ItemStack log) {
+    private static void initLogMaterial(ItemMaterialRegistry reg, String oreName, ItemStack log) {
         if (!isBlock(log))
             return;
 
@@ -176,7 +176,7 @@ public final class ItemMaterialHeuristics {
     }
 
     // TODO: Tie ores to ingots
-    private static void initIngotLikeMaterial(String oreName, ItemStack stack) {
+    private static void initIngotLikeMaterial(ItemMaterialRegistry reg, String oreName, ItemStack stack) {
         int splitPoint = indexOfUpper(oreName, 0);
         if (splitPoint < 0) return;
 
@@ -247,21 +247,18 @@ public final class ItemMaterialHeuristics {
         }
     }
 
-    private static void initOreMaterial(String oreName) {
+    private static void initOreMaterial(ItemMaterialRegistry reg, String oreName, ItemStack stack) {
         String prefix = "ore";
         String suffixU = oreName.substring(prefix.length());
         String suffix = suffixU.substring(0, 1).toLowerCase() + suffixU.substring(1);
 
-        // Create ore materials for each ore
-        supplyExpandedStacks(OreDictionary.getOres(oreName, false), (stack -> {
-            if (isBlock(stack)) {
-                ItemMaterial oreMaterial = reg.getOrCreateMaterial(stack);
-                reg.registerTypes(oreMaterial, prefix, suffix, "block");
-            }
-        }));
+        if (isBlock(stack)) {
+            ItemMaterial oreMaterial = reg.getOrCreateMaterial(stack);
+            reg.registerTypes(oreMaterial, prefix, suffix, "block");
+        }
     }
 
-    private static void initStoneMaterial(String oreName, ItemStack stack) {
+    private static void initStoneMaterial(ItemMaterialRegistry reg, String oreName, ItemStack stack) {
         if (oreName.endsWith("Polished") || !isBlock(stack)) return;
 
         String prefix = "stone";
@@ -282,7 +279,7 @@ public final class ItemMaterialHeuristics {
         }
     }
 
-    private static void initCobblestoneMaterial(String oreName, ItemStack stack) {
+    private static void initCobblestoneMaterial(ItemMaterialRegistry reg, String oreName, ItemStack stack) {
         ItemMaterial cobbleMat = reg.getOrCreateMaterial(stack);
         reg.registerTypes(cobbleMat, "cobblestone", "block");
 
@@ -295,17 +292,17 @@ public final class ItemMaterialHeuristics {
         }
     }
 
-    private static void supplyExpandedStacks(Collection<ItemStack> stacks, Consumer<ItemStack> stackConsumer) {
-        for (ItemStack log : stacks) {
+    private static void addExpandedStacks(List<Pair<String, ItemStack>> list, String oreName) {
+        for (ItemStack stack : OreDictionary.getOres(oreName, false)) {
             try {
-                if (log.getMetadata() == OreDictionary.WILDCARD_VALUE) {
+                if (stack.getMetadata() == OreDictionary.WILDCARD_VALUE) {
                     NonNullList<ItemStack> stackList = NonNullList.create();
-                    log.getItem().getSubItems(CreativeTabs.SEARCH, stackList);
+                    stack.getItem().getSubItems(CreativeTabs.SEARCH, stackList);
                     for (int i = 0; i < stackList.size(); i++) {
-                        stackConsumer.accept(stackList.get(i));
+                        list.add(Pair.of(oreName, stackList.get(i)));
                     }
                 } else {
-                    stackConsumer.accept(log.copy());
+                    list.add(Pair.of(oreName, stack.copy()));
                 }
             } catch (Exception e) {
 
@@ -313,21 +310,52 @@ public final class ItemMaterialHeuristics {
         }
     }
 
+    private static void scan(ItemMaterialRegistry reg, List<Pair<String, ItemStack>> stacks, StackScanner scanner) {
+        for (Pair<String, ItemStack> pair : stacks) {
+            try {
+                scanner.scan(reg, pair.getKey(), pair.getValue());
+            } catch (Exception e) {
+
+            }
+        }
+    }
+
+    private static CompletableFuture<ItemMaterialStaging> scanAsync(ItemMaterialRegistry reg, List<Pair<String, ItemStack>> stacks, StackScanner scanner) {
+        return CompletableFuture.supplyAsync(() -> {
+            ItemMaterialStaging staging = new ItemMaterialStaging(reg);
+            scan(staging, stacks, scanner);
+            return staging;
+        });
+    }
+
     public static void init(boolean modded) {
         FastRecipeLookup.clearRecipeLists();
-        if (modded) {
-            FastRecipeLookup.initRecipeLists();
-        }
 
         long time = System.currentTimeMillis();
         if (initPhase >= (modded ? 2 : 1))
             return;
 
-        ProgressManager.ProgressBar bar = ProgressManager.push("Material scanning", 6);
-
-        reg = ItemMaterialRegistry.INSTANCE;
+        ItemMaterialRegistry reg = ItemMaterialRegistry.INSTANCE;
         initPhase = (modded ? 2 : 1);
 
+        File cacheFile = ModCharset.getConfigFile("materialCache.dat");
+        String cacheHash = null;
+        if (modded && CACHE_ENABLED) {
+            cacheHash = ItemMaterialCache.computeHash();
+            if (ItemMaterialCache.load(cacheFile, cacheHash, reg)) {
+                time = System.currentTimeMillis() - time;
+                ModCharset.logger.info("Charset material heuristics loaded from cache (phase " + initPhase + "): " + time + "ms");
+                writeDebugInfo(reg);
+                return;
+            }
+        }
+
+        if (modded) {
+            FastRecipeLookup.initRecipeLists();
+        }
+
+        ProgressManager.ProgressBar bar = ProgressManager.push("Material scanning", 4);
+
         bar.step("Wood");
         // Pre-initialize impl woods
         if (!modded) {
@@ -348,44 +376,46 @@ public final class ItemMaterialHeuristics {
                     reg.registerRelation(log, stick, "stick");
                 }
             }
-        } else {
-            supplyExpandedStacks(OreDictionary.getOres("logWood", false), ItemMaterialHeuristics::initLogMaterial);
         }
 
-        bar.step("Ores");
+        bar.step("Ores/Ingots/Stones");
 
         if (modded) {
+            // Item.getSubItems is not guaranteed to be thread-safe, so expand on this thread
+            List<Pair<String, ItemStack>> logs = new ArrayList<>();
+            List<Pair<String, ItemStack>> ores = new ArrayList<>();
+            List<Pair<String, ItemStack>> ingots = new ArrayList<>();
+            List<Pair<String, ItemStack>> stones = new ArrayList<>();
+            List<Pair<String, ItemStack>> cobblestones = new ArrayList<>();
+
+            addExpandedStacks(logs, "logWood");
             for (String oreName : OreDictionary.getOreNames()) {
                 if (oreName.startsWith("ore")) {
-                    initOreMaterial(oreName);
+                    addExpandedStacks(ores, oreName);
+                } else if (oreName.startsWith("ingot") || oreName.startsWith("dust") || oreName.startsWith("gem")) {
+                    addExpandedStacks(ingots, oreName);
+                } else if (oreName.startsWith("stone")) {
+                    addExpandedStacks(stones, oreName);
+                } else if (oreName.startsWith("cobblestone")) {
+                    addExpandedStacks(cobblestones, oreName);
                 }
             }
-        }
-
-        bar.step("Ingots/Dusts/Gems");
-
-        if (modded) {
-            for (String oreName : OreDictionary.getOreNames()) {
-                if (oreName.startsWith("ingot") || oreName.startsWith("dust") || oreName.startsWith("gem")) {
-                    supplyExpandedStacks(OreDictionary.getOres(oreName, false), (s -> ItemMaterialHeuristics.initIngotLikeMaterial(oreName, s)));
-                }
-            }
-        }
-
-        bar.step("Stones");
 
-        if (modded) {
-            for (String oreName : OreDictionary.getOreNames()) {
-                if (oreName.startsWith("stone")) {
-                    supplyExpandedStacks(OreDictionary.getOres(oreName, false), (s -> ItemMaterialHeuristics.initStoneMaterial(oreName, s)));
-                }
+            // The tasks only read from the registry; their results are
+            // merged back in a fixed order to keep the outcome deterministic.
+            List<CompletableFuture<ItemMaterialStaging>> tasks = Arrays.asList(
+                    scanAsync(reg, logs, ItemMaterialHeuristics::initLogMaterial),
+                    scanAsync(reg, ores, ItemMaterialHeuristics::initOreMaterial),
+                    scanAsync(reg, ingots, ItemMaterialHeuristics::initIngotLikeMaterial),
+                    scanAsync(reg, stones, ItemMaterialHeuristics::initStoneMaterial)
+            );
+
+            for (CompletableFuture<ItemMaterialStaging> task : tasks) {
+                task.join().mergeInto(reg);
             }
 
-            for (String oreName : OreDictionary.getOreNames()) {
-                if (oreName.startsWith("cobblestone")) {
-                    supplyExpandedStacks(OreDictionary.getOres(oreName, false), (s -> ItemMaterialHeuristics.initCobblestoneMaterial(oreName, s)));
-                }
-            }
+            // Cobblestone needs the stone materials to be present
+            scan(reg, cobblestones, ItemMaterialHeuristics::initCobblestoneMaterial);
         }
 
         bar.step("Misc");
@@ -395,9 +425,20 @@ public final class ItemMaterialHeuristics {
         bar.step("Slabs/Stairs");
 
         if (modded) {
-            for (ItemMaterial material : reg.getMaterialsByType("block")) {
-                findSlab(material);
-                findStair(material);
+            List<ItemMaterial> blocks = new ArrayList<>(reg.getMaterialsByType("block"));
+            List<ItemStack[]> results = blocks.parallelStream()
+                    .map((material) -> new ItemStack[] { findSlab(material), findStair(material) })
+                    .collect(Collectors.toList());
+
+            for (int i = 0; i < blocks.size(); i++) {
+                ItemMaterial material = blocks.get(i);
+                ItemStack[] result = results.get(i);
+                if (isBlock(result[0])) {
+                    addResultingBlock(reg, material, result[0], "block", "slab");
+                }
+                if (isBlock(result[1])) {
+                    addResultingBlock(reg, material, result[1], "block", "stairs");
+                }
             }
         }
 
@@ -406,6 +447,14 @@ public final class ItemMaterialHeuristics {
         time = System.currentTimeMillis() - time;
         ModCharset.logger.info("Charset material heuristics time (phase " + initPhase + "): " + time + "ms");
 
+        if (modded) {
+            ItemMaterialCache.save(cacheFile, cacheHash, reg);
+        }
+
+        writeDebugInfo(reg);
+    }
+
+    private static void writeDebugInfo(ItemMaterialRegistry reg) {
         if (CharsetLib.enableDebugInfo && initPhase == 2) {
             try {
                 File outputFile = new File("charsetItemMaterials.txt");
@@ -34,6 +34,10 @@ public class ItemMaterialRegistry {
 	public static final ItemMaterialRegistry INSTANCE = new ItemMaterialRegistry();
 	private final Map<String, ItemMaterial> materialsById = new HashMap<>();
 	private final ListMultimap<String, ItemMaterial> materialsByType = MultimapBuilder.hashKeys().arrayListValues().build();
+	// stack lookups go through these, so that no ID string has to be built
+	private final Map<Item, List<ItemMaterial>> materialsByItem = new IdentityHashMap<>();
+	private final List<ItemMaterial> materialsByIndex = new ArrayList<>();
+	private final Map<String, BitSet> typeBits = new HashMap<>();
 
 	protected ItemMaterialRegistry() {
 
@@ -125,39 +129,39 @@ public class ItemMaterialRegistry {
 		return materialsByType.get(type);
 	}
 
-	// TODO: slow - optimize
 	public Collection<ItemMaterial> getMaterialsByTypes(String... types) {
-		Collection<ItemMaterial> startingPoint = materialsById.values();
+		BitSet result = null;
 
 		for (String type : types) {
 			if (type.charAt(0) != '!') {
-				Collection<ItemMaterial> collection = materialsByType.get(type);
-				if (collection.size() < startingPoint.size()) {
-					startingPoint = collection;
+				BitSet bits = typeBits.get(type);
+				if (bits == null) {
+					return ImmutableSet.of();
+				} else if (result == null) {
+					result = (BitSet) bits.clone();
+				} else {
+					result.and(bits);
 				}
 			}
 		}
 
-		ImmutableSet.Builder<ItemMaterial> set = new ImmutableSet.Builder<>();
-		for (ItemMaterial material : startingPoint) {
-			Collection<String> srcTypes = material.getTypes();
-			boolean valid = true;
-			for (String type : types) {
-				if (type.charAt(0) == '!') {
-					if (srcTypes.contains(type.substring(1))) {
-						valid = false;
-						break;
-					}
-				} else {
-					if (!srcTypes.contains(type)) {
-						valid = false;
-						break;
-					}
+		if (result == null) {
+			result = new BitSet(materialsByIndex.size());
+			result.set(0, materialsByIndex.size());
+		}
+
+		for (String type : types) {
+			if (type.charAt(0) == '!') {
+				BitSet bits = typeBits.get(type.substring(1));
+				if (bits != null) {
+					result.andNot(bits);
 				}
 			}
-			if (valid) {
-				set.add(material);
-			}
+		}
+
+		ImmutableSet.Builder<ItemMaterial> set = new ImmutableSet.Builder<>();
+		for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+			set.add(materialsByIndex.get(i));
 		}
 		return set.build();
 	}
@@ -167,14 +171,54 @@ public class ItemMaterialRegistry {
 	}
 
 	public ItemMaterial getMaterialIfPresent(ItemStack stack) {
-		return materialsById.get(createId(stack));
+		List<ItemMaterial> list = materialsByItem.get(stack.getItem());
+		if (list == null) {
+			return null;
+		}
+
+		int meta = stack.getMetadata();
+		NBTTagCompound tag = stack.getTagCompound();
+		int tagHash = -1;
+
+		for (int i = 0; i < list.size(); i++) {
+			ItemMaterial material = list.get(i);
+			ItemStack materialStack = material.getStack();
+			if (materialStack.getMetadata() != meta) {
+				continue;
+			}
+
+			NBTTagCompound materialTag = materialStack.getTagCompound();
+			if (tag == null || materialTag == null) {
+				if (tag == materialTag) {
+					return material;
+				}
+			} else {
+				if (tagHash == -1) {
+					tagHash = tag.hashCode();
+				}
+				if (material.tagHash == tagHash && tag.equals(materialTag)) {
+					return material;
+				}
+			}
+		}
+
+		return null;
 	}
 
 	public ItemMaterial getOrCreateMaterial(ItemStack stack) {
 		ItemMaterial material = getMaterialIfPresent(stack);
 		if (material == null) {
 			material = new ItemMaterial(stack);
+			ItemMaterial existing = materialsById.get(material.getId());
+			if (existing != null) {
+				// same ID, but the tags differ in a way their string form does not show
+				return existing;
+			}
+
+			material.index = materialsByIndex.size();
 			materialsById.put(material.getId(), material);
+			materialsByIndex.add(material);
+			materialsByItem.computeIfAbsent(stack.getItem(), (k) -> new ArrayList<>(1)).add(material);
 		}
 		return material;
 	}
@@ -191,6 +235,9 @@ public class ItemMaterialRegistry {
 		if (type.length() > 0 && !material.getTypes().contains(type)) {
 			material.getTypes().add(type);
 			materialsByType.put(type, material);
+			if (material.index >= 0) {
+				typeBits.computeIfAbsent(type, (k) -> new BitSet()).set(material.index);
+			}
 			return true;
 		} else {
 			return false;
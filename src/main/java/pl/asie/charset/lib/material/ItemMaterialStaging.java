@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.material;
+
+import net.minecraft.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A registry view for a single heuristics task. Lookups fall through to the
+ * parent registry, which must not be modified while the task runs; changes
+ * are kept locally and recorded, so they can be merged into the parent in
+ * a fixed order afterwards.
+ */
+final class ItemMaterialStaging extends ItemMaterialRegistry {
+	private static final int OP_CREATE = 0;
+	private static final int OP_TYPE = 1;
+	private static final int OP_RELATION = 2;
+
+	private static final class Op {
+		private final int type;
+		private final ItemStack source, target;
+		private final String name;
+
+		Op(int type, ItemStack source, ItemStack target, String name) {
+			this.type = type;
+			this.source = source;
+			this.target = target;
+			this.name = name;
+		}
+	}
+
+	private final ItemMaterialRegistry parent;
+	private final Map<String, ItemMaterial> materials = new HashMap<>();
+	private final List<Op> ops = new ArrayList<>();
+
+	ItemMaterialStaging(ItemMaterialRegistry parent) {
+		this.parent = parent;
+	}
+
+	@Override
+	public ItemMaterial getMaterialIfPresent(ItemStack stack) {
+		String id = createId(stack);
+		ItemMaterial material = materials.get(id);
+		if (material == null) {
+			ItemMaterial parentMaterial = parent.getMaterial(id);
+			if (parentMaterial != null) {
+				material = new ItemMaterial(parentMaterial.getStack());
+				material.getTypes().addAll(parentMaterial.getTypes());
+				material.getRelations().putAll(parentMaterial.getRelations());
+				materials.put(id, material);
+			}
+		}
+		return material;
+	}
+
+	@Override
+	public ItemMaterial getOrCreateMaterial(ItemStack stack) {
+		ItemMaterial material = getMaterialIfPresent(stack);
+		if (material == null) {
+			material = new ItemMaterial(stack);
+			materials.put(material.getId(), material);
+			ops.add(new Op(OP_CREATE, stack, null, null));
+		}
+		return material;
+	}
+
+	@Override
+	public boolean registerType(ItemMaterial material, String type) {
+		if (type.length() > 0 && !material.getTypes().contains(type)) {
+			material.getTypes().add(type);
+			ops.add(new Op(OP_TYPE, material.getStack(), null, type));
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public boolean registerRelation(ItemMaterial source, ItemMaterial target, String relation) {
+		source.getRelations().put(relation, target);
+		ops.add(new Op(OP_RELATION, source.getStack(), target.getStack(), relation));
+		return true;
+	}
+
+	void mergeInto(ItemMaterialRegistry registry) {
+		for (Op op : ops) {
+			ItemMaterial source = registry.getOrCreateMaterial(op.source);
+			switch (op.type) {
+				case OP_TYPE:
+					registry.registerType(source, op.name);
+					break;
+				case OP_RELATION:
+					registry.registerRelation(source, registry.getOrCreateMaterial(op.target), op.name);
+					break;
+			}
+		}
+		ops.clear();
+	}
+}
@@ -57,5 +57,13 @@ public abstract class Packet {
 
 	public abstract void writeData(PacketBuffer buf);
 
+	/**
+	 * @return A hint for the size of the data written by
+	 * {@link #writeData(PacketBuffer)}, in bytes, or -1 if unknown.
+	 */
+	public int estimateSize() {
+		return -1;
+	}
+
 	public abstract boolean isAsynchronous();
 }
@@ -19,7 +19,6 @@
 
 package pl.asie.charset.lib.network;
 
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageCodec;
@@ -42,9 +41,7 @@ public class PacketChannelHandler extends MessageToMessageCodec<FMLProxyPacket,
 	@Override
 	protected void encode(ChannelHandlerContext ctx, Packet msg,
 						  List<Object> out) throws Exception {
-		PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
-		buffer.writeByte(registry.getPacketId(msg.getClass()));
-		msg.writeData(buffer);
+		PacketBuffer buffer = registry.encode(msg);
 		FMLProxyPacket proxy = new FMLProxyPacket(buffer, ctx.channel().attr(NetworkRegistry.FML_CHANNEL).get());
 		out.add(proxy);
 	}
@@ -53,7 +50,10 @@ public class PacketChannelHandler extends MessageToMessageCodec<FMLProxyPacket,
 	protected void decode(ChannelHandlerContext ctx, FMLProxyPacket msg,
 						  List<Object> out) throws Exception {
 		INetHandler iNetHandler = ctx.channel().attr(NetworkRegistry.NET_HANDLER).get();
-		Packet newMsg = registry.instantiatePacket(msg.payload().readUnsignedByte());
+		int size = msg.payload().readableBytes();
+		int id = msg.payload().readUnsignedByte();
+		registry.getStatistics().recordReceived(id, size);
+		Packet newMsg = registry.instantiatePacket(id);
 		if (newMsg != null) {
 			newMsg.readData(iNetHandler, new PacketBuffer(msg.payload()));
 			if (newMsg.isAsynchronous()) {
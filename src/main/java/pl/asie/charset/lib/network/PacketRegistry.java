@@ -19,12 +19,16 @@
 
 package pl.asie.charset.lib.network;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
-import net.minecraft.server.management.PlayerChunkMap;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.server.management.PlayerChunkMapEntry;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
@@ -33,19 +37,33 @@ import net.minecraftforge.fml.common.network.FMLEmbeddedChannel;
 import net.minecraftforge.fml.common.network.FMLOutboundHandler;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.common.network.NetworkRegistry.TargetPoint;
+import net.minecraftforge.fml.common.network.handshake.NetworkDispatcher;
+import net.minecraftforge.fml.common.network.internal.FMLProxyPacket;
 import net.minecraftforge.fml.relauncher.Side;
 import pl.asie.charset.ModCharset;
+import pl.asie.charset.lib.utils.MethodHandleHelper;
 
-import java.util.EnumMap;
-import java.util.HashSet;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Constructor;
+import java.util.*;
+import java.util.function.Supplier;
 
 public class PacketRegistry {
 	private static final HashSet<String> usedChannelNames = new HashSet<>();
+	private static final List<PacketRegistry> registries = new ArrayList<>();
+	private static final int SCRATCH_CAPACITY = 256;
+	private static final MethodHandle ENTRY_PLAYERS_GETTER = MethodHandleHelper.findFieldGetter(PlayerChunkMapEntry.class, "players", "field_187283_c");
+
+	private final String channelName;
 
 	private EnumMap<Side, FMLEmbeddedChannel> channels;
 	@SuppressWarnings("unchecked")
 	private Class<? extends Packet>[] idPacketMap = (Class<? extends Packet>[]) new Class[256];
+	@SuppressWarnings("unchecked")
+	private Supplier<? extends Packet>[] idFactoryMap = (Supplier<? extends Packet>[]) new Supplier[256];
 	private Object2IntMap<Class<? extends Packet>> packetIdMap = new Object2IntOpenHashMap<>();
+	private final PacketStatistics statistics = new PacketStatistics();
 
 	public PacketRegistry(String channelName) {
 		if (channelName.length() > 20) {
@@ -57,18 +75,48 @@ public class PacketRegistry {
 			throw new RuntimeException("Channel name already used: " + channelName);
 		}
 
+		this.channelName = channelName;
 		channels = NetworkRegistry.INSTANCE.newChannel(channelName, new PacketChannelHandler(this));
 		usedChannelNames.add(channelName);
+		registries.add(this);
+	}
+
+	public static Collection<PacketRegistry> getRegistries() {
+		return Collections.unmodifiableList(registries);
+	}
+
+	public String getChannelName() {
+		return channelName;
+	}
+
+	public PacketStatistics getStatistics() {
+		return statistics;
+	}
+
+	public void registerPacket(int id, Supplier<? extends Packet> factory) {
+		idPacketMap[id] = factory.get().getClass();
+		idFactoryMap[id] = factory;
+		packetIdMap.put(idPacketMap[id], id);
 	}
 
+	/**
+	 * @deprecated Use {@link #registerPacket(int, Supplier)}, which avoids reflection.
+	 */
+	@Deprecated
 	public void registerPacket(int id, Class<? extends Packet> packet) {
+		Constructor<? extends Packet> constructor;
 		try {
-			packet.getConstructor();
+			constructor = packet.getConstructor();
 		} catch (NoSuchMethodException e) {
 			throw new RuntimeException("No empty constructor defined! This is a Charset bug!", e);
 		}
-		idPacketMap[id] = packet;
-		packetIdMap.put(packet, id);
+		registerPacket(id, () -> {
+			try {
+				return constructor.newInstance();
+			} catch (ReflectiveOperationException e) {
+				throw new RuntimeException(e);
+			}
+		});
 	}
 
 	public net.minecraft.network.Packet getPacketFrom(Packet message) {
@@ -82,15 +130,85 @@ public class PacketRegistry {
 
 	public void sendToWatching(Packet message, World world, BlockPos pos, Entity except) {
 		WorldServer worldServer = (WorldServer) world;
-		PlayerChunkMap map = worldServer.getPlayerChunkMap();
-		for (EntityPlayer player : worldServer.playerEntities) {
-			if (player != except) {
-				if (map.isPlayerWatchingChunk((EntityPlayerMP) player, pos.getX() >> 4, pos.getZ() >> 4)) {
-					channels.get(Side.SERVER).attr(FMLOutboundHandler.FML_MESSAGETARGET).set(FMLOutboundHandler.OutboundTarget.PLAYER);
-					channels.get(Side.SERVER).attr(FMLOutboundHandler.FML_MESSAGETARGETARGS).set(player);
-					channels.get(Side.SERVER).writeOutbound(message);
+		PlayerChunkMapEntry entry = worldServer.getPlayerChunkMap().getEntry(pos.getX() >> 4, pos.getZ() >> 4);
+		if (entry == null || !entry.isSentToPlayers()) {
+			return;
+		}
+
+		List<EntityPlayerMP> players = getWatchingPlayers(entry);
+		if (players == null) {
+			for (EntityPlayer player : worldServer.playerEntities) {
+				if (player != except && entry.containsPlayer((EntityPlayerMP) player)) {
+					sendTo(message, player);
 				}
 			}
+			return;
+		}
+
+		// encode once, then hand every watcher its own view of the payload
+		PacketBuffer buffer = null;
+		for (int i = 0; i < players.size(); i++) {
+			EntityPlayerMP player = players.get(i);
+			if (player == except || player.connection == null) {
+				continue;
+			}
+
+			NetworkDispatcher dispatcher = NetworkDispatcher.get(player.connection.getNetworkManager());
+			if (dispatcher == null) {
+				continue;
+			}
+
+			if (buffer == null) {
+				buffer = encode(message);
+			}
+			dispatcher.sendProxy(createProxy(buffer, channelName));
+		}
+	}
+
+	// every receiver gets its own reader index over the shared payload
+	static FMLProxyPacket createProxy(PacketBuffer encoded, String channelName) {
+		return new FMLProxyPacket(new PacketBuffer(encoded.duplicate()), channelName);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<EntityPlayerMP> getWatchingPlayers(PlayerChunkMapEntry entry) {
+		if (ENTRY_PLAYERS_GETTER != null) {
+			try {
+				return (List<EntityPlayerMP>) ENTRY_PLAYERS_GETTER.invoke(entry);
+			} catch (Throwable t) {
+				// fall through
+			}
+		}
+
+		return null;
+	}
+
+	PacketBuffer encode(Packet message) {
+		return encode(getPacketId(message.getClass()), message, statistics);
+	}
+
+	static PacketBuffer encode(int id, Packet message, PacketStatistics statistics) {
+		int hint = message.estimateSize();
+
+		if (hint >= 0) {
+			ByteBuf buffer = Unpooled.buffer(hint + 1);
+			int capacity = buffer.capacity();
+			buffer.writeByte(id);
+			message.writeData(new PacketBuffer(buffer));
+			statistics.recordSent(id, buffer.readableBytes(), buffer.capacity() != capacity ? 2 : 1);
+			return new PacketBuffer(buffer);
+		}
+
+		// FMLProxyPacket payloads are never released, so pooled memory is
+		// only used as scratch space; the payload is an exactly-sized copy
+		ByteBuf scratch = PooledByteBufAllocator.DEFAULT.heapBuffer(SCRATCH_CAPACITY);
+		try {
+			scratch.writeByte(id);
+			message.writeData(new PacketBuffer(scratch));
+			statistics.recordSent(id, scratch.readableBytes(), 1);
+			return new PacketBuffer(Unpooled.copiedBuffer(scratch));
+		} finally {
+			scratch.release();
 		}
 	}
 
@@ -145,9 +263,14 @@ public class PacketRegistry {
 		this.sendToAllAround(packet, new TargetPoint(entity.dimension, entity.posX, entity.posY, entity.posZ, d));
 	}
 
+	@Nullable
+	public Class<? extends Packet> getPacketClass(int i) {
+		return idPacketMap[i];
+	}
+
 	public Packet instantiatePacket(int i) {
 		try {
-			return idPacketMap[i].newInstance();
+			return idFactoryMap[i].get();
 		} catch (Exception e) {
 			e.printStackTrace();
 			return null;
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.network;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-packet-ID traffic counters for a single {@link PacketRegistry}.
+ */
+public final class PacketStatistics {
+	private static final int SENT = 0, SENT_BYTES = 1, ALLOCATIONS = 2, RECEIVED = 3, RECEIVED_BYTES = 4;
+	private static final int FIELDS = 5;
+	private final AtomicLongArray counters = new AtomicLongArray(256 * FIELDS);
+
+	PacketStatistics() {
+
+	}
+
+	void recordSent(int id, int bytes, int allocations) {
+		counters.incrementAndGet(id * FIELDS + SENT);
+		counters.addAndGet(id * FIELDS + SENT_BYTES, bytes);
+		counters.addAndGet(id * FIELDS + ALLOCATIONS, allocations);
+	}
+
+	void recordReceived(int id, int bytes) {
+		counters.incrementAndGet(id * FIELDS + RECEIVED);
+		counters.addAndGet(id * FIELDS + RECEIVED_BYTES, bytes);
+	}
+
+	public long getSent(int id) {
+		return counters.get(id * FIELDS + SENT);
+	}
+
+	public long getSentBytes(int id) {
+		return counters.get(id * FIELDS + SENT_BYTES);
+	}
+
+	/**
+	 * @return The number of buffer allocations made while encoding, including
+	 * any growth past the initial capacity.
+	 */
+	public long getAllocations(int id) {
+		return counters.get(id * FIELDS + ALLOCATIONS);
+	}
+
+	public long getReceived(int id) {
+		return counters.get(id * FIELDS + RECEIVED);
+	}
+
+	public long getReceivedBytes(int id) {
+		return counters.get(id * FIELDS + RECEIVED_BYTES);
+	}
+
+	public void reset() {
+		for (int i = 0; i < counters.length(); i++) {
+			counters.set(i, 0);
+		}
+	}
+}
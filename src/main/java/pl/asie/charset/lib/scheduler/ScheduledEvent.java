@@ -19,26 +19,64 @@
 
 package pl.asie.charset.lib.scheduler;
 
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.ResourceLocation;
+
+import javax.annotation.Nullable;
+
 public final class ScheduledEvent {
-	private final Runnable runnable;
-	private boolean executed;
-
-	ScheduledEvent(Runnable runnable) {
-		this.runnable = runnable;
-		this.executed = false;
-	}
-
-	public boolean hasExecuted() {
-		return executed;
-	}
-
-	boolean run() {
-		if (!executed) {
-			runnable.run();
-			executed = true;
-			return true;
-		} else {
-			throw new RuntimeException("ScheduledEvent tried to execute twice!");
-		}
-	}
+    private final Runnable runnable;
+    private boolean executed;
+    private boolean cancelled;
+
+    final long targetTime;
+    final int priority;
+    long sequence;
+
+    // set for events which are saved with the world
+    @Nullable final ResourceLocation persistentId;
+    @Nullable final NBTTagCompound persistentData;
+    @Nullable SchedulerSavedData savedData;
+
+    ScheduledEvent(Runnable runnable, long targetTime, int priority, @Nullable ResourceLocation persistentId, @Nullable NBTTagCompound persistentData) {
+        this.runnable = runnable;
+        this.targetTime = targetTime;
+        this.priority = priority;
+        this.persistentId = persistentId;
+        this.persistentData = persistentData;
+        this.executed = false;
+    }
+
+    public boolean hasExecuted() {
+        return executed;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Prevents the event from running. Cancelling an event which has
+     * already run has no effect.
+     */
+    public void cancel() {
+        if (!cancelled && !executed) {
+            cancelled = true;
+            if (savedData != null) {
+                savedData.markDirty();
+            }
+        }
+    }
+
+    boolean run() {
+        if (cancelled) {
+            return false;
+        } else if (!executed) {
+            runnable.run();
+            executed = true;
+            return true;
+        } else {
+            throw new RuntimeException("ScheduledEvent tried to execute twice!");
+        }
+    }
 }
@@ -19,39 +19,193 @@
 
 package pl.asie.charset.lib.scheduler;
 
-import gnu.trove.map.TLongObjectMap;
-import gnu.trove.map.hash.TLongObjectHashMap;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.ResourceLocation;
 import net.minecraft.world.World;
+import net.minecraft.world.storage.MapStorage;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
+import pl.asie.charset.ModCharset;
 
-import java.util.ArrayDeque;
-import java.util.Map;
-import java.util.Queue;
-import java.util.WeakHashMap;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.BiFunction;
 
-// TODO: Implement saving? Ha, ha, I wish.
+/**
+ * Runs tasks at a given world tick, from the end of that world's tick.
+ *
+ * Events are kept in a per-world timer wheel, so scheduling and cancelling
+ * are O(1). Events due on the same tick run in priority order (lowest
+ * first), then in the order they were scheduled. If a tick budget is set,
+ * events left over once it is used up spill into the next tick.
+ *
+ * Persistent events are saved with the world. They are described by an ID
+ * and an NBT tag, and recreated through a factory registered with
+ * {@link #registerPersistent(ResourceLocation, BiFunction)}; factories
+ * should not assume the world is fully loaded when they are called.
+ */
 public class Scheduler {
     public static final Scheduler INSTANCE = new Scheduler();
-    private final Map<World, TLongObjectMap<Queue<ScheduledEvent>>> schedule = new WeakHashMap<>();
+    public static final int PRIORITY_DEFAULT = 0;
+    private static final int PURGE_INTERVAL = 1200;
+    private static final Comparator<ScheduledEvent> ORDER = Comparator.<ScheduledEvent>comparingInt(e -> e.priority).thenComparingLong(e -> e.sequence);
+
+    private final Map<World, WorldSchedule> schedule = new WeakHashMap<>();
+    private final Map<ResourceLocation, BiFunction<World, NBTTagCompound, Runnable>> persistentFactories = new HashMap<>();
+    private long tickBudgetNanos;
+
+    private static final class WorldSchedule {
+        private final TimerWheel wheel;
+        private final PriorityQueue<ScheduledEvent> ready = new PriorityQueue<>(ORDER);
+        private long nextSequence;
+        private int ticksSincePurge;
+        @Nullable private SchedulerSavedData savedData;
+
+        WorldSchedule(World world) {
+            // the last tick which has been processed
+            this.wheel = new TimerWheel(world.getTotalWorldTime() - 2);
+        }
+
+        void add(ScheduledEvent event) {
+            event.sequence = nextSequence++;
+            wheel.add(event, ready::add);
+        }
+
+        NBTTagList writePersistent() {
+            NBTTagList list = new NBTTagList();
+            List<ScheduledEvent> events = new ArrayList<>(ready);
+            wheel.forEach(events::add);
+
+            for (ScheduledEvent event : events) {
+                if (event.persistentId != null && !event.isCancelled() && !event.hasExecuted()) {
+                    NBTTagCompound tag = new NBTTagCompound();
+                    tag.setString("id", event.persistentId.toString());
+                    tag.setLong("t", event.targetTime);
+                    tag.setInteger("p", event.priority);
+                    tag.setTag("d", event.persistentData);
+                    list.appendTag(tag);
+                }
+            }
+
+            return list;
+        }
+    }
+
+    /**
+     * Sets the time events may take per world tick, in milliseconds.
+     * 0 means no limit.
+     */
+    public void setTickBudget(int millis) {
+        tickBudgetNanos = millis * 1000000L;
+    }
+
+    /**
+     * Registers a factory for persistent events with the given ID.
+     */
+    public void registerPersistent(ResourceLocation id, BiFunction<World, NBTTagCompound, Runnable> factory) {
+        if (persistentFactories.containsKey(id)) {
+            throw new RuntimeException("Persistent scheduler event " + id + " registered twice!");
+        }
+        persistentFactories.put(id, factory);
+    }
+
+    private WorldSchedule getSchedule(World world) {
+        return schedule.computeIfAbsent(world, WorldSchedule::new);
+    }
 
     public ScheduledEvent in(World world, int ticks, Runnable runnable) {
-        return at(world, world.getTotalWorldTime() + ticks, runnable);
+        return at(world, world.getTotalWorldTime() + ticks, PRIORITY_DEFAULT, runnable);
+    }
+
+    public ScheduledEvent in(World world, int ticks, int priority, Runnable runnable) {
+        return at(world, world.getTotalWorldTime() + ticks, priority, runnable);
     }
 
     public ScheduledEvent at(World world, long targetTime, Runnable runnable) {
-        TLongObjectMap<Queue<ScheduledEvent>> requests = schedule.computeIfAbsent(world, k -> new TLongObjectHashMap<>());
-        Queue<ScheduledEvent> queue = requests.get(targetTime);
-        if (queue == null) {
-            queue = new ArrayDeque<>();
-            requests.put(targetTime, queue);
+        return at(world, targetTime, PRIORITY_DEFAULT, runnable);
+    }
+
+    public ScheduledEvent at(World world, long targetTime, int priority, Runnable runnable) {
+        ScheduledEvent event = new ScheduledEvent(runnable, targetTime, priority, null, null);
+        getSchedule(world).add(event);
+        return event;
+    }
+
+    public ScheduledEvent inPersistent(World world, int ticks, ResourceLocation id, NBTTagCompound data) {
+        return atPersistent(world, world.getTotalWorldTime() + ticks, PRIORITY_DEFAULT, id, data);
+    }
+
+    /**
+     * Schedules an event which is saved with the world; on the client, or
+     * in worlds without save data, it behaves like a regular event.
+     */
+    public ScheduledEvent atPersistent(World world, long targetTime, int priority, ResourceLocation id, NBTTagCompound data) {
+        BiFunction<World, NBTTagCompound, Runnable> factory = persistentFactories.get(id);
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown persistent scheduler event " + id + "!");
         }
-        ScheduledEvent event = new ScheduledEvent(runnable);
-        queue.add(event);
+
+        ScheduledEvent event = new ScheduledEvent(factory.apply(world, data), targetTime, priority, id, data);
+        WorldSchedule s = getSchedule(world);
+        if (!world.isRemote) {
+            event.savedData = getSavedData(world, s);
+            if (event.savedData != null) {
+                event.savedData.markDirty();
+            }
+        }
+        s.add(event);
         return event;
     }
 
+    @Nullable
+    private SchedulerSavedData getSavedData(World world, WorldSchedule s) {
+        if (s.savedData == null) {
+            MapStorage storage = world.getPerWorldStorage();
+            if (storage == null) {
+                return null;
+            }
+
+            SchedulerSavedData data = (SchedulerSavedData) storage.getOrLoadData(SchedulerSavedData.class, SchedulerSavedData.NAME);
+            if (data == null) {
+                data = new SchedulerSavedData(SchedulerSavedData.NAME);
+                storage.setData(SchedulerSavedData.NAME, data);
+            }
+
+            data.setWriter(s::writePersistent);
+            s.savedData = data;
+            restore(world, s, data.takeLoaded());
+        }
+
+        return s.savedData;
+    }
+
+    private void restore(World world, WorldSchedule s, NBTTagList list) {
+        for (int i = 0; i < list.tagCount(); i++) {
+            NBTTagCompound tag = list.getCompoundTagAt(i);
+            ResourceLocation id = new ResourceLocation(tag.getString("id"));
+            BiFunction<World, NBTTagCompound, Runnable> factory = persistentFactories.get(id);
+            if (factory == null) {
+                ModCharset.logger.warn("Dropping unknown persistent scheduler event " + id + "!");
+                continue;
+            }
+
+            NBTTagCompound data = tag.getCompoundTag("d");
+            ScheduledEvent event = new ScheduledEvent(factory.apply(world, data), tag.getLong("t"), tag.getInteger("p"), id, data);
+            event.savedData = s.savedData;
+            s.add(event);
+        }
+    }
+
+    @SubscribeEvent
+    public void onWorldLoad(WorldEvent.Load event) {
+        World world = event.getWorld();
+        if (!world.isRemote && !persistentFactories.isEmpty()) {
+            getSavedData(world, getSchedule(world));
+        }
+    }
+
     @SubscribeEvent
     public void onWorldUnload(WorldEvent.Unload event) {
         schedule.remove(event.getWorld());
@@ -60,18 +214,39 @@ public class Scheduler {
     @SubscribeEvent
     public void onWorldTick(TickEvent.WorldTickEvent event) {
         if (event.phase == TickEvent.Phase.END) {
-            TLongObjectMap<Queue<ScheduledEvent>> requests = schedule.get(event.world);
-            if (requests != null) {
+            WorldSchedule s = schedule.get(event.world);
+            if (s != null) {
                 // We tick at the *end* of a phase, so the world time has
                 // already had 1 added to it.
                 long time = event.world.getTotalWorldTime() - 1;
-                Queue<ScheduledEvent> queue = requests.remove(time);
-                if (queue != null) {
-                    for (ScheduledEvent r : queue) {
-                        event.world.profiler.startSection(r.getClass().getName());
-                        r.run();
-                        event.world.profiler.endSection();
+                s.wheel.advance(time, s.ready::add);
+
+                if (!s.ready.isEmpty()) {
+                    event.world.profiler.startSection("charset_scheduler");
+                    long deadline = tickBudgetNanos > 0 ? System.nanoTime() + tickBudgetNanos : Long.MAX_VALUE;
+                    boolean ranAny = false;
+
+                    // events scheduled for this tick while running are
+                    // added to the ready queue, and run here as well
+                    while (!s.ready.isEmpty()) {
+                        if (ranAny && System.nanoTime() >= deadline) {
+                            break;
+                        }
+
+                        ScheduledEvent r = s.ready.poll();
+                        if (r.run()) {
+                            ranAny = true;
+                            if (r.savedData != null) {
+                                r.savedData.markDirty();
+                            }
+                        }
                     }
+                    event.world.profiler.endSection();
+                }
+
+                if (++s.ticksSincePurge >= PURGE_INTERVAL) {
+                    s.ticksSincePurge = 0;
+                    s.wheel.purgeCancelled();
                 }
             }
         }
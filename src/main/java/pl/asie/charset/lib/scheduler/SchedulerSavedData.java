@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.scheduler;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.world.storage.WorldSavedData;
+import net.minecraftforge.common.util.Constants;
+
+import javax.annotation.Nullable;
+import java.util.function.Supplier;
+
+/**
+ * Holds the persistent events of a world's schedule in its save data.
+ */
+public class SchedulerSavedData extends WorldSavedData {
+    static final String NAME = "charset_scheduler";
+
+    private NBTTagList loaded = new NBTTagList();
+    @Nullable private Supplier<NBTTagList> writer;
+
+    public SchedulerSavedData(String name) {
+        super(name);
+    }
+
+    void setWriter(Supplier<NBTTagList> writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * @return The events read from disk which have not been restored yet.
+     */
+    NBTTagList takeLoaded() {
+        NBTTagList list = loaded;
+        loaded = new NBTTagList();
+        return list;
+    }
+
+    @Override
+    public void readFromNBT(NBTTagCompound nbt) {
+        loaded = nbt.getTagList("events", Constants.NBT.TAG_COMPOUND);
+    }
+
+    @Override
+    public NBTTagCompound writeToNBT(NBTTagCompound compound) {
+        compound.setTag("events", writer != null ? writer.get() : loaded);
+        return compound;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timer wheel keyed by world tick. Level n has 64 slots,
+ * each spanning 64^n ticks; an event is stored on the lowest level whose
+ * current block of ticks contains its target time, and is cascaded down
+ * as time advances into its slot. Events further away than the top level
+ * can reach wait in an overflow list.
+ */
+final class TimerWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    @SuppressWarnings("unchecked")
+    private final List<ScheduledEvent>[][] slots = new List[LEVELS][SLOTS];
+    private final List<ScheduledEvent> overflow = new ArrayList<>();
+    private long now;
+    private int size;
+
+    TimerWheel(long now) {
+        this.now = now;
+    }
+
+    /**
+     * @return The last tick the wheel has advanced to.
+     */
+    long getTime() {
+        return now;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds an event. Events due at or before the current tick are
+     * handed to the consumer straight away.
+     */
+    void add(ScheduledEvent event, Consumer<ScheduledEvent> due) {
+        long target = event.targetTime;
+        if (target <= now) {
+            due.accept(event);
+            return;
+        }
+
+        size++;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if ((target >> shift) == (now >> shift)) {
+                int slot = (int) (target >> (SLOT_BITS * level)) & SLOT_MASK;
+                List<ScheduledEvent> list = slots[level][slot];
+                if (list == null) {
+                    list = slots[level][slot] = new ArrayList<>();
+                }
+                list.add(event);
+                return;
+            }
+        }
+
+        overflow.add(event);
+    }
+
+    /**
+     * Advances the wheel up to and including the given tick, handing every
+     * event which became due to the consumer.
+     */
+    void advance(long time, Consumer<ScheduledEvent> due) {
+        if (time - now > SPAN) {
+            // too far to step through; rebuild the wheel at the new time
+            List<ScheduledEvent> all = drain();
+            now = time;
+            for (ScheduledEvent event : all) {
+                add(event, due);
+            }
+            return;
+        }
+
+        while (now < time) {
+            now++;
+            cascade(due);
+
+            List<ScheduledEvent> list = slots[0][(int) now & SLOT_MASK];
+            if (list != null) {
+                slots[0][(int) now & SLOT_MASK] = null;
+                size -= list.size();
+                for (int i = 0; i < list.size(); i++) {
+                    due.accept(list.get(i));
+                }
+            }
+        }
+    }
+
+    private void cascade(Consumer<ScheduledEvent> due) {
+        if ((now & SLOT_MASK) != 0) {
+            return;
+        }
+
+        // find the highest level whose slot boundary we have just crossed
+        int top = 1;
+        while (top < LEVELS && ((now >> (SLOT_BITS * top)) & SLOT_MASK) == 0) {
+            top++;
+        }
+
+        if (top == LEVELS) {
+            List<ScheduledEvent> list = new ArrayList<>(overflow);
+            overflow.clear();
+            size -= list.size();
+            for (ScheduledEvent event : list) {
+                add(event, due);
+            }
+            top--;
+        }
+
+        for (int level = top; level >= 1; level--) {
+            int slot = (int) (now >> (SLOT_BITS * level)) & SLOT_MASK;
+            List<ScheduledEvent> list = slots[level][slot];
+            if (list != null) {
+                slots[level][slot] = null;
+                size -= list.size();
+                for (int i = 0; i < list.size(); i++) {
+                    add(list.get(i), due);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes cancelled events. Cancellation itself is O(1) and only marks
+     * the event, so this keeps long-lived cancelled events from piling up.
+     */
+    void purgeCancelled() {
+        for (List<ScheduledEvent>[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                if (level[i] != null) {
+                    int oldSize = level[i].size();
+                    level[i].removeIf(ScheduledEvent::isCancelled);
+                    size -= oldSize - level[i].size();
+                    if (level[i].isEmpty()) {
+                        level[i] = null;
+                    }
+                }
+            }
+        }
+
+        int oldSize = overflow.size();
+        overflow.removeIf(ScheduledEvent::isCancelled);
+        size -= oldSize - overflow.size();
+    }
+
+    void forEach(Consumer<ScheduledEvent> consumer) {
+        for (List<ScheduledEvent>[] level : slots) {
+            for (List<ScheduledEvent> list : level) {
+                if (list != null) {
+                    list.forEach(consumer);
+                }
+            }
+        }
+        overflow.forEach(consumer);
+    }
+
+    private List<ScheduledEvent> drain() {
+        List<ScheduledEvent> all = new ArrayList<>(size);
+        forEach(all::add);
+        for (List<ScheduledEvent>[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = null;
+            }
+        }
+        overflow.clear();
+        size = 0;
+        return all;
+    }
+}
@@ -19,18 +19,26 @@
 
 package pl.asie.charset.lib.utils;
 
+import it.unimi.dsi.fastutil.longs.Long2ByteMap;
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.material.Material;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.entity.ai.attributes.IAttributeInstance;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.init.Blocks;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.RayTraceResult;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BiPredicate;
@@ -51,40 +59,233 @@ public final class RayTraceUtils {
 		}
 	}
 
+	/**
+	 * A reusable walker over the voxels crossed by a segment (3D-DDA),
+	 * skipping the starting one. Every voxel the segment touches is
+	 * visited in order, including corner-adjacent ones.
+	 */
+	public static final class Cursor {
+		private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+		private final List<AxisAlignedBB> boxes = new ArrayList<>();
+		private double x0, y0, z0, dx, dy, dz;
+		private int bx, by, bz, ex, ey, ez, sx, sy, sz;
+		private double tDeltaX, tDeltaY, tDeltaZ, tMaxX, tMaxY, tMaxZ;
+		private double t;
+		private EnumFacing side;
+		private Chunk chunk;
+
+		public Cursor reset(Vec3d from, Vec3d to) {
+			return reset(from.x, from.y, from.z, to.x, to.y, to.z);
+		}
+
+		public Cursor reset(double x0, double y0, double z0, double x1, double y1, double z1) {
+			this.x0 = x0;
+			this.y0 = y0;
+			this.z0 = z0;
+			dx = x1 - x0;
+			dy = y1 - y0;
+			dz = z1 - z0;
+			bx = MathHelper.floor(x0);
+			by = MathHelper.floor(y0);
+			bz = MathHelper.floor(z0);
+			ex = MathHelper.floor(x1);
+			ey = MathHelper.floor(y1);
+			ez = MathHelper.floor(z1);
+			sx = dx > 0 ? 1 : -1;
+			sy = dy > 0 ? 1 : -1;
+			sz = dz > 0 ? 1 : -1;
+
+			tDeltaX = dx != 0 ? Math.abs(1 / dx) : Double.POSITIVE_INFINITY;
+			tDeltaY = dy != 0 ? Math.abs(1 / dy) : Double.POSITIVE_INFINITY;
+			tDeltaZ = dz != 0 ? Math.abs(1 / dz) : Double.POSITIVE_INFINITY;
+			tMaxX = dx != 0 ? (dx > 0 ? (bx + 1 - x0) : (x0 - bx)) * tDeltaX : Double.POSITIVE_INFINITY;
+			tMaxY = dy != 0 ? (dy > 0 ? (by + 1 - y0) : (y0 - by)) * tDeltaY : Double.POSITIVE_INFINITY;
+			tMaxZ = dz != 0 ? (dz > 0 ? (bz + 1 - z0) : (z0 - bz)) * tDeltaZ : Double.POSITIVE_INFINITY;
+
+			t = 0;
+			side = null;
+			chunk = null;
+			pos.setPos(bx, by, bz);
+			return this;
+		}
+
+		/**
+		 * @return False if the end of the segment has been passed.
+		 */
+		public boolean next() {
+			if (bx == ex && by == ey && bz == ez) {
+				return false;
+			}
+
+			if (tMaxX <= tMaxY && tMaxX <= tMaxZ) {
+				if (tMaxX > 1) return false;
+				t = tMaxX;
+				bx += sx;
+				tMaxX += tDeltaX;
+				side = sx > 0 ? EnumFacing.WEST : EnumFacing.EAST;
+			} else if (tMaxY <= tMaxZ) {
+				if (tMaxY > 1) return false;
+				t = tMaxY;
+				by += sy;
+				tMaxY += tDeltaY;
+				side = sy > 0 ? EnumFacing.DOWN : EnumFacing.UP;
+			} else {
+				if (tMaxZ > 1) return false;
+				t = tMaxZ;
+				bz += sz;
+				tMaxZ += tDeltaZ;
+				side = sz > 0 ? EnumFacing.NORTH : EnumFacing.SOUTH;
+			}
+
+			pos.setPos(bx, by, bz);
+			return true;
+		}
+
+		/**
+		 * @return The current voxel. This is mutable - copy it before storing it.
+		 */
+		public BlockPos getPos() {
+			return pos;
+		}
+
+		/**
+		 * @return The side through which the current voxel was entered.
+		 */
+		public EnumFacing getSide() {
+			return side;
+		}
+
+		/**
+		 * @return The position along the segment (0 to 1) at which the current voxel was entered.
+		 */
+		public double getT() {
+			return t;
+		}
+
+		public Vec3d getHitVec() {
+			return new Vec3d(x0 + dx * t, y0 + dy * t, z0 + dz * t);
+		}
+
+		public IBlockState getBlockState(World world) {
+			if (by < 0 || by >= 256) {
+				return Blocks.AIR.getDefaultState();
+			}
+
+			if (chunk == null || chunk.x != (bx >> 4) || chunk.z != (bz >> 4)) {
+				chunk = world.getChunkFromChunkCoords(bx >> 4, bz >> 4);
+			}
+			return chunk.getBlockState(pos);
+		}
+	}
+
+	private static final Result MISS = new Result(null, null);
+	private static final byte KIND_SKIP = 1;
+	private static final byte KIND_FULL = 2;
+	private static final byte KIND_COMPLEX = 3;
+
 	private RayTraceUtils() {
 
 	}
 
 	public static Result getCollision(World world, Vec3d from, Vec3d to, Predicate<BlockPos> ignoreCheck) {
-		int steps = (int) Math.ceil(from.distanceTo(to));
-		if (steps <= 0) {
-			return new Result(null, null);
+		return getCollision(world, new Cursor(), from, to, ignoreCheck);
+	}
+
+	/**
+	 * Finds the first block collision box along the segment, skipping the
+	 * block the segment starts in. The position passed to ignoreCheck is
+	 * mutable.
+	 */
+	public static Result getCollision(World world, Cursor cursor, Vec3d from, Vec3d to, Predicate<BlockPos> ignoreCheck) {
+		return trace(world, cursor, from, to, ignoreCheck, null);
+	}
+
+	/**
+	 * Traces several segments sharing a starting point. Voxels crossed by
+	 * more than one of them are only looked up (and passed to ignoreCheck) once.
+	 */
+	public static Result[] castMany(World world, Vec3d from, List<Vec3d> targets, Predicate<BlockPos> ignoreCheck) {
+		Cursor cursor = new Cursor();
+		Long2ByteMap kinds = new Long2ByteOpenHashMap();
+		Result[] results = new Result[targets.size()];
+
+		for (int i = 0; i < results.length; i++) {
+			results[i] = trace(world, cursor, from, targets.get(i), ignoreCheck, kinds);
 		}
 
-		double xd = (to.x - from.x) / steps;
-		double yd = (to.y - from.y) / steps;
-		double zd = (to.z - from.z) / steps;
+		return results;
+	}
 
-		BlockPos lastPos = new BlockPos(from);
-		Vec3d vecPos = from.addVector(xd, yd, zd);
+	private static Result trace(World world, Cursor cursor, Vec3d from, Vec3d to, Predicate<BlockPos> ignoreCheck, @Nullable Long2ByteMap kinds) {
+		cursor.reset(from, to);
+
+		while (cursor.next()) {
+			byte kind;
+			if (kinds != null) {
+				long key = cursor.getPos().toLong();
+				kind = kinds.get(key);
+				if (kind == 0) {
+					kind = classify(world, cursor, ignoreCheck);
+					kinds.put(key, kind);
+				}
+			} else {
+				kind = classify(world, cursor, ignoreCheck);
+			}
 
-		for (int i = 1; i <= steps; i++) {
-			BlockPos pos = new BlockPos(vecPos);
-			if (!pos.equals(lastPos) && !ignoreCheck.test(pos)) {
-				IBlockState state = world.getBlockState(pos);
-				List<AxisAlignedBB> list = new ArrayList<>();
-				state.addCollisionBoxToList(world, pos, new AxisAlignedBB(pos), list, null, false);
-				Result result = getCollision(world, pos, from, to, list, false);
+			if (kind == KIND_FULL) {
+				BlockPos pos = cursor.getPos().toImmutable();
+				return new Result(new RayTraceResult(cursor.getHitVec(), cursor.getSide(), pos), Block.FULL_BLOCK_AABB.offset(pos));
+			} else if (kind == KIND_COMPLEX) {
+				Result result = getCollision(world, cursor.getPos().toImmutable(), cursor.getBlockState(world), from, to, cursor.boxes);
 				if (result.valid()) {
 					return result;
 				}
 			}
+		}
+
+		return MISS;
+	}
+
+	private static byte classify(World world, Cursor cursor, Predicate<BlockPos> ignoreCheck) {
+		if (ignoreCheck.test(cursor.getPos())) {
+			return KIND_SKIP;
+		}
+
+		IBlockState state = cursor.getBlockState(world);
+		if (state.getMaterial() == Material.AIR) {
+			return KIND_SKIP;
+		} else if (state.isFullCube() && state.getCollisionBoundingBox(world, cursor.getPos()) == Block.FULL_BLOCK_AABB) {
+			// the segment hits such a block where it enters its voxel
+			return KIND_FULL;
+		} else {
+			return KIND_COMPLEX;
+		}
+	}
+
+	private static Result getCollision(World world, BlockPos pos, IBlockState state, Vec3d from, Vec3d to, List<AxisAlignedBB> list) {
+		list.clear();
+		state.addCollisionBoxToList(world, pos, new AxisAlignedBB(pos), list, null, false);
+
+		double minDistance = Double.POSITIVE_INFINITY;
+		RayTraceResult hit = null;
+
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) == null) {
+				continue;
+			}
 
-			vecPos = vecPos.addVector(xd, yd, zd);
-			lastPos = pos;
+			// the collision boxes are in world space already
+			RayTraceResult mop = getCollisionPreAdjusted(pos, from, to, list.get(i), i, false);
+			if (mop != null) {
+				double d = mop.hitVec.squareDistanceTo(from);
+				if (d < minDistance) {
+					minDistance = d;
+					hit = mop;
+				}
+			}
 		}
 
-		return new Result(null, null);
+		return hit != null ? new Result(hit, list.get(hit.subHit)) : MISS;
 	}
 
 	public static Vec3d getStart(EntityLivingBase player) {
@@ -125,7 +326,7 @@ public final class RayTraceUtils {
 				continue;
 			}
 
-			RayTraceResult mop = getCollisionPreAdjusted(pos, origin0, direction0, list.get(i), i);
+			RayTraceResult mop = getCollisionPreAdjusted(pos, origin0, direction0, list.get(i), i, true);
 			if (mop != null) {
 				double d = mop.hitVec.squareDistanceTo(origin);
 				if (d < minDistance) {
@@ -144,10 +345,10 @@ public final class RayTraceUtils {
 			end = end.addVector((double) (-pos.getX()), (double) (-pos.getY()), (double) (-pos.getZ()));
 		}
 
-		return getCollisionPreAdjusted(pos, start, end, aabb, 0);
+		return getCollisionPreAdjusted(pos, start, end, aabb, 0, true);
 	}
 
-	private static RayTraceResult getCollisionPreAdjusted(BlockPos pos, Vec3d start, Vec3d end, AxisAlignedBB aabb, int subHit) {
+	private static RayTraceResult getCollisionPreAdjusted(BlockPos pos, Vec3d start, Vec3d end, AxisAlignedBB aabb, int subHit, boolean offsetHit) {
 		Vec3d vecWest = start.getIntermediateWithXValue(end, aabb.minX);
 		Vec3d vecEast = start.getIntermediateWithXValue(end, aabb.maxX);
 		Vec3d vecDown = start.getIntermediateWithYValue(end, aabb.minY);
@@ -203,7 +404,7 @@ public final class RayTraceUtils {
 		}
 
 		if (vecHit != null) {
-			RayTraceResult mop = new RayTraceResult(vecHit.addVector(pos.getX(), pos.getY(), pos.getZ()), sideHit, pos);
+			RayTraceResult mop = new RayTraceResult(offsetHit ? vecHit.addVector(pos.getX(), pos.getY(), pos.getZ()) : vecHit, sideHit, pos);
 			mop.subHit = subHit;
 			return mop;
 		} else {
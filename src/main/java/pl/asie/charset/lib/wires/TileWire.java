@@ -32,6 +32,7 @@ import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
 import pl.asie.charset.api.wires.WireFace;
 import pl.asie.charset.lib.block.TileBase;
+import pl.asie.charset.lib.capability.CapabilityQuery;
 import pl.asie.charset.lib.scheduler.Scheduler;
 
 public class TileWire extends TileBase implements IMultipartTile, ITickable, IWireContainer {
@@ -49,6 +50,14 @@ public class TileWire extends TileBase implements IMultipartTile, ITickable, IWi
         }
     }
 
+    @Override
+    public void invalidate(InvalidationType type) {
+        super.invalidate(type);
+        if (wire != null) {
+            wire.onInvalidate(type);
+        }
+    }
+
     @Override
     public void readNBTData(NBTTagCompound nbt, boolean isClient) {
         if (nbt.hasKey("f")) {
@@ -128,12 +137,9 @@ public class TileWire extends TileBase implements IMultipartTile, ITickable, IWi
         world.setBlockToAir(pos);
     }
 
-    // I'm a horrible, horrible dev
-    protected static boolean isWireCheckingForCaps;
-
     @Override
     public boolean hasCapability(Capability<?> capability, EnumFacing facing) {
-        return capability == MCMPCapabilities.MULTIPART_TILE || (wire != null && !isWireCheckingForCaps && wire.hasCapability(capability, facing)) || super.hasCapability(capability, facing);
+        return capability == MCMPCapabilities.MULTIPART_TILE || (wire != null && !CapabilityQuery.current().ignoresWires() && wire.hasCapability(capability, facing)) || super.hasCapability(capability, facing);
     }
 
     @Override
@@ -142,7 +148,7 @@ public class TileWire extends TileBase implements IMultipartTile, ITickable, IWi
             return MCMPCapabilities.MULTIPART_TILE.cast(this);
         }
 
-        if (wire != null && !isWireCheckingForCaps) {
+        if (wire != null && !CapabilityQuery.current().ignoresWires()) {
             T result = wire.getCapability(capability, facing);
             if (result != null) {
                 return result;
@@ -32,6 +32,7 @@ import net.minecraftforge.common.property.IUnlistedProperty;
 import net.minecraftforge.event.AttachCapabilitiesEvent;
 import org.apache.commons.lang3.tuple.Pair;
 import pl.asie.charset.api.wires.WireFace;
+import pl.asie.charset.lib.block.TileBase;
 import pl.asie.charset.lib.render.model.IRenderComparable;
 import pl.asie.charset.lib.utils.OcclusionUtils;
 import pl.asie.charset.lib.utils.UnlistedPropertyGeneric;
@@ -50,6 +51,7 @@ public abstract class Wire implements ITickable, ICapabilityProvider, IRenderCom
 
     private byte internalConnections, externalConnections, cornerConnections, occludedSides, cornerOccludedSides;
     private boolean connectionCheckDirty;
+    private WireNeighborCache neighborCache;
 
     protected Wire(@Nonnull IWireContainer container, @Nonnull WireProvider factory, @Nonnull WireFace location) {
         this.container = container;
@@ -65,100 +67,37 @@ public abstract class Wire implements ITickable, ICapabilityProvider, IRenderCom
         connectionCheckDirty = true;
     }
 
-    private ICapabilityProvider getCapabilityProviderRemoteBlock(BlockPos pos) {
-        return WireUtils.getCapabilityProvider(this, pos, true);
-    }
-
-    private ICapabilityProvider getCapabilityProviderRemote(BlockPos pos, WireFace face, boolean blocks) {
-        Wire wire = WireUtils.getWire(getContainer().world(), pos, face);
-        if (wire != null) {
-            return wire;
-        } else {
-            if (blocks) {
-                return getCapabilityProviderRemoteBlock(pos);
-            } else {
-                return null;
-            }
+    private WireNeighborCache getNeighborCache() {
+        if (neighborCache == null) {
+            neighborCache = new WireNeighborCache(this);
         }
-    }
 
-    private <T> T getCapabilityRemoteBlock(BlockPos pos, EnumFacing facing, Capability<T> capability) {
-        return WireUtils.getCapability(this, pos, capability, facing, true);
+        neighborCache.update();
+        return neighborCache;
     }
 
-    private <T> T getCapabilityRemote(BlockPos pos, WireFace face, EnumFacing facing, boolean blocks, Capability<T> capability) {
-        Wire wire = WireUtils.getWire(getContainer().world(), pos, face);
-        if (wire != null && wire.hasCapability(capability, facing)) {
-            return wire.getCapability(capability, facing);
-        } else {
-            if (blocks) {
-                return getCapabilityRemoteBlock(pos, facing, capability);
-            } else {
-                return null;
-            }
+    protected final void invalidateNeighborCache() {
+        if (neighborCache != null) {
+            neighborCache.invalidate();
         }
     }
 
     protected final Iterable<Pair<ICapabilityProvider, EnumFacing>> connectedIterator(boolean connectsBelowWire) {
         return () -> new Iterator<Pair<ICapabilityProvider, EnumFacing>>() {
-            private final BlockPos pos = getContainer().pos();
-            private final WireFace loc = getLocation();
+            private final WireNeighborCache cache = getNeighborCache();
+            private int i = connectsBelowWire ? 0 : 1;
             private Pair<ICapabilityProvider, EnumFacing> queued = find();
-            private int i = 0;
 
             private Pair<ICapabilityProvider, EnumFacing> find() {
-                ICapabilityProvider result = null;
-                EnumFacing resultFace = null;
-                while (result == null && i < 20) {
-                    switch (i) {
-                        case 0: {
-                            if (getLocation() != WireFace.CENTER && connectsBelowWire) {
-                                result = getCapabilityProviderRemoteBlock(pos.offset(loc.facing));
-                                resultFace = loc.facing.getOpposite();
-                            }
-                        } break;
-                        case 1:
-                        case 2:
-                        case 3:
-                        case 4:
-                        case 5:
-                        case 6:
-                        case 7: {
-                            WireFace face = WireFace.VALUES[i - 1];
-                            if (face != loc && connectsInternal(face)) {
-                                result = getCapabilityProviderRemote(pos, face, false);
-                                resultFace = getLocation().facing;
-                            }
-                        } break;
-                        case 8:
-                        case 9:
-                        case 10:
-                        case 11:
-                        case 12:
-                        case 13: {
-                            EnumFacing facing = EnumFacing.getFront(i - 8);
-                            if (connectsExternal(facing)) {
-                                result = getCapabilityProviderRemote(pos.offset(facing), loc, true);
-                                resultFace = facing.getOpposite();
-                            }
-                        } break;
-                        case 14:
-                        case 15:
-                        case 16:
-                        case 17:
-                        case 18:
-                        case 19: {
-                            EnumFacing facing = EnumFacing.getFront(i - 14);
-                            if (connectsCorner(facing)) {
-                                result = getCapabilityProviderRemote(pos.offset(facing).offset(loc.facing), WireFace.get(facing.getOpposite()), false);
-                                resultFace = loc.facing.getOpposite();
-                            }
-                        } break;
-                    }
-
+                while (i < WireNeighborCache.SLOTS) {
+                    ICapabilityProvider result = cache.getProvider(i);
+                    EnumFacing resultFace = cache.getFacing(i);
                     i++;
+                    if (result != null) {
+                        return Pair.of(result, resultFace);
+                    }
                 }
-                return result != null ? Pair.of(result, resultFace) : null;
+                return null;
             }
 
             @Override
@@ -177,59 +116,18 @@ public abstract class Wire implements ITickable, ICapabilityProvider, IRenderCom
 
     protected final <T> Iterable<T> connectedIterator(Capability<T> capability, boolean connectsBelowWire) {
         return () -> new Iterator<T>() {
-            private final BlockPos pos = getContainer().pos();
-            private final WireFace loc = getLocation();
+            private final WireNeighborCache cache = getNeighborCache();
+            private int i = connectsBelowWire ? 0 : 1;
             private T queued = find();
-            private int i = 0;
 
             private T find() {
-                T result = null;
-                while (result == null && i < 20) {
-                    switch (i) {
-                        case 0: {
-                            if (getLocation() != WireFace.CENTER && connectsBelowWire) {
-                                result = getCapabilityRemoteBlock(pos.offset(loc.facing), loc.facing.getOpposite(), capability);
-                            }
-                        } break;
-                        case 1:
-                        case 2:
-                        case 3:
-                        case 4:
-                        case 5:
-                        case 6:
-                        case 7: {
-                            WireFace face = WireFace.VALUES[i - 1];
-                            if (face != loc && connectsInternal(face)) {
-                                result = getCapabilityRemote(pos, face, getLocation().facing, false, capability);
-                            }
-                        } break;
-                        case 8:
-                        case 9:
-                        case 10:
-                        case 11:
-                        case 12:
-                        case 13: {
-                            EnumFacing facing = EnumFacing.getFront(i - 8);
-                            if (connectsExternal(facing)) {
-                                result = getCapabilityRemote(pos.offset(facing), loc, facing.getOpposite(), true, capability);
-                            }
-                        } break;
-                        case 14:
-                        case 15:
-                        case 16:
-                        case 17:
-                        case 18:
-                        case 19: {
-                            EnumFacing facing = EnumFacing.getFront(i - 14);
-                            if (connectsCorner(facing)) {
-                                result = getCapabilityRemote(pos.offset(facing).offset(loc.facing), WireFace.get(facing.getOpposite()), loc.facing.getOpposite(), false, capability);
-                            }
-                        } break;
+                while (i < WireNeighborCache.SLOTS) {
+                    T result = cache.getCapability(i++, capability);
+                    if (result != null) {
+                        return result;
                     }
-
-                    i++;
                 }
-                return result;
+                return null;
             }
 
             @Override
@@ -286,6 +184,7 @@ public abstract class Wire implements ITickable, ICapabilityProvider, IRenderCom
         }
 
         connectionCheckDirty = true;
+        invalidateNeighborCache();
         if (remote && getContainer().pos() != null) {
             updateConnections();
         }
@@ -413,6 +312,8 @@ public abstract class Wire implements ITickable, ICapabilityProvider, IRenderCom
         int newConnectionCache = getConnectionMask();
 
         if (oldConnectionCache != newConnectionCache) {
+            invalidateNeighborCache();
+            onConnectionsChanged();
             container.requestNeighborUpdate(oldConnectionCache ^ newConnectionCache);
             container.requestRenderUpdate();
         }
@@ -420,6 +321,14 @@ public abstract class Wire implements ITickable, ICapabilityProvider, IRenderCom
         connectionCheckDirty = false;
     }
 
+    protected void onConnectionsChanged() {
+
+    }
+
+    public void onInvalidate(TileBase.InvalidationType type) {
+
+    }
+
     protected int getWeakPower(EnumFacing side) {
         return 0;
     }
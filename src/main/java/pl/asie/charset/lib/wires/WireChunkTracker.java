@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.wires;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Stamps chunks as they load and unload. Unloading a chunk does not
+ * invalidate its tile entities, nor does it notify neighbouring blocks,
+ * so wire caches compare these stamps to notice detached or newly loaded
+ * tiles around them.
+ */
+public final class WireChunkTracker {
+    public static final WireChunkTracker INSTANCE = new WireChunkTracker();
+    private static final int MAX_TRACKED_CHUNKS = 16384;
+
+    static final class Stamps {
+        private final Long2LongOpenHashMap stamps = new Long2LongOpenHashMap();
+        private long current, floor;
+
+        long current() {
+            return current;
+        }
+
+        /**
+         * @return Whether the chunk may have loaded or unloaded since the given stamp was taken.
+         */
+        boolean changedSince(long chunkKey, long stamp) {
+            return stamp < floor || stamps.get(chunkKey) > stamp;
+        }
+
+        private void mark(long chunkKey) {
+            if (stamps.size() >= MAX_TRACKED_CHUNKS) {
+                // forget the history - anything stamped before now counts as changed
+                stamps.clear();
+                floor = ++current;
+            }
+
+            stamps.put(chunkKey, ++current);
+        }
+    }
+
+    // chunk events fire on both the client and server threads
+    private final Map<World, Stamps> stampsByWorld = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private WireChunkTracker() {
+
+    }
+
+    static Stamps get(World world) {
+        return INSTANCE.stampsByWorld.computeIfAbsent(world, (w) -> new Stamps());
+    }
+
+    /**
+     * Passes the keys of every chunk holding a block adjacent (including
+     * diagonally) to the given position.
+     */
+    static void forEachNearbyChunk(BlockPos pos, LongConsumer consumer) {
+        int minX = (pos.getX() - 1) >> 4, maxX = (pos.getX() + 1) >> 4;
+        int minZ = (pos.getZ() - 1) >> 4, maxZ = (pos.getZ() + 1) >> 4;
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                consumer.accept(ChunkPos.asLong(x, z));
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event) {
+        get(event.getWorld()).mark(ChunkPos.asLong(event.getChunk().x, event.getChunk().z));
+    }
+
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload event) {
+        get(event.getWorld()).mark(ChunkPos.asLong(event.getChunk().x, event.getChunk().z));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.wires;
+
+import mcmultipart.api.multipart.MultipartHelper;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import pl.asie.charset.api.wires.WireFace;
+import pl.asie.charset.lib.capability.CapabilityHelper;
+import pl.asie.charset.lib.capability.CapabilityQuery;
+
+/**
+ * The resolved neighbours of a single wire, one per connection slot:
+ * the block below, the six internal faces, the six external directions
+ * and the six corners.
+ *
+ * The cache is rebuilt after its owner's connections or neighbours change,
+ * whenever a cached tile or wire turns out to have been removed, and when
+ * a nearby chunk loads or unloads. Unloaded neighbours are left empty
+ * rather than loaded back in.
+ */
+final class WireNeighborCache {
+    static final int SLOTS = 20;
+
+    private final Wire owner;
+    private final Wire[] wires = new Wire[SLOTS];
+    private final TileEntity[] tiles = new TileEntity[SLOTS];
+    private final BlockPos[] positions = new BlockPos[SLOTS];
+    private final EnumFacing[] facings = new EnumFacing[SLOTS];
+    // slots which fall back to the owning block, and those which need a full lookup
+    private int blockSlots, complexSlots;
+    private boolean valid;
+    private final long[] chunkKeys = new long[4];
+    private int chunkKeyCount;
+    private WireChunkTracker.Stamps chunkStamps;
+    private long chunkStamp;
+
+    WireNeighborCache(Wire owner) {
+        this.owner = owner;
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+
+    void update() {
+        if (!valid || !isStillValid()) {
+            rebuild();
+        }
+    }
+
+    private static boolean isRemoved(Wire wire) {
+        IWireContainer container = wire.getContainer();
+        return container instanceof TileEntity && ((TileEntity) container).isInvalid();
+    }
+
+    private boolean isStillValid() {
+        if (chunkStamps.current() != chunkStamp) {
+            for (int i = 0; i < chunkKeyCount; i++) {
+                if (chunkStamps.changedSince(chunkKeys[i], chunkStamp)) {
+                    return false;
+                }
+            }
+            chunkStamp = chunkStamps.current();
+        }
+
+        for (int i = 0; i < SLOTS; i++) {
+            if ((wires[i] != null && isRemoved(wires[i])) || (tiles[i] != null && tiles[i].isInvalid())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void rebuild() {
+        World world = owner.getContainer().world();
+        BlockPos pos = owner.getContainer().pos();
+        WireFace loc = owner.getLocation();
+        blockSlots = complexSlots = 0;
+
+        chunkStamps = WireChunkTracker.get(world);
+        chunkStamp = chunkStamps.current();
+        chunkKeyCount = 0;
+        WireChunkTracker.forEachNearbyChunk(pos, (key) -> chunkKeys[chunkKeyCount++] = key);
+
+        for (int i = 0; i < SLOTS; i++) {
+            wires[i] = null;
+            tiles[i] = null;
+            positions[i] = null;
+            facings[i] = null;
+
+            if (i == 0) {
+                if (loc != WireFace.CENTER) {
+                    setBlock(world, i, pos.offset(loc.facing), loc.facing.getOpposite());
+                }
+            } else if (i < 8) {
+                WireFace face = WireFace.VALUES[i - 1];
+                if (face != loc && owner.connectsInternal(face)) {
+                    wires[i] = WireUtils.getWire(world, pos, face);
+                    facings[i] = loc.facing;
+                }
+            } else if (i < 14) {
+                EnumFacing facing = EnumFacing.getFront(i - 8);
+                if (owner.connectsExternal(facing)) {
+                    BlockPos offPos = pos.offset(facing);
+                    if (world.isBlockLoaded(offPos)) {
+                        wires[i] = WireUtils.getWire(world, offPos, loc);
+                    }
+                    setBlock(world, i, offPos, facing.getOpposite());
+                }
+            } else {
+                EnumFacing facing = EnumFacing.getFront(i - 14);
+                if (owner.connectsCorner(facing)) {
+                    BlockPos cornerPos = pos.offset(facing).offset(loc.facing);
+                    if (world.isBlockLoaded(cornerPos)) {
+                        wires[i] = WireUtils.getWire(world, cornerPos, WireFace.get(facing.getOpposite()));
+                    }
+                    facings[i] = loc.facing.getOpposite();
+                }
+            }
+        }
+
+        valid = true;
+    }
+
+    private void setBlock(World world, int i, BlockPos pos, EnumFacing facing) {
+        blockSlots |= 1 << i;
+        positions[i] = pos;
+        facings[i] = facing;
+        if (!world.isBlockLoaded(pos)) {
+            // looking it up would load the chunk back in
+            return;
+        }
+
+        tiles[i] = world.getTileEntity(pos);
+
+        // multipart edge slots and block capability providers are not
+        // cached, and are looked up in full every time
+        if ((owner.getLocation() != WireFace.CENTER && MultipartHelper.getContainer(world, pos).isPresent())
+                || CapabilityHelper.hasBlockProviders(world.getBlockState(pos))) {
+            complexSlots |= 1 << i;
+        }
+    }
+
+    EnumFacing getFacing(int i) {
+        return facings[i];
+    }
+
+    ICapabilityProvider getProvider(int i) {
+        return wires[i] != null ? wires[i] : tiles[i];
+    }
+
+    <T> T getCapability(int i, Capability<T> capability) {
+        Wire wire = wires[i];
+        EnumFacing facing = facings[i];
+        if (wire != null && wire.hasCapability(capability, facing)) {
+            return wire.getCapability(capability, facing);
+        }
+
+        if ((blockSlots & (1 << i)) == 0) {
+            return null;
+        } else if ((complexSlots & (1 << i)) != 0) {
+            return WireUtils.getCapability(owner, positions[i], capability, facing, true);
+        } else {
+            TileEntity tile = tiles[i];
+            return tile != null ? CapabilityQuery.of(true, owner, null).apply(() -> CapabilityHelper.get(capability, tile, facing)) : null;
+        }
+    }
+}
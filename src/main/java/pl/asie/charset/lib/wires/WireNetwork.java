@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.wires;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import org.apache.commons.lang3.tuple.Pair;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A cached graph of connected wires of one kind, along with the non-wire
+ * endpoints they lead to.
+ *
+ * The graph is built once from a starting wire. Neighbour changes only
+ * re-scan the affected wire; connection changes invalidate the network,
+ * which is then rebuilt lazily by the next wire to use it. Wires next to
+ * a chunk which loaded or unloaded since the last query are re-scanned
+ * as well, as that does not cause any block updates.
+ */
+public abstract class WireNetwork<W extends Wire, E> {
+    private final Set<W> wires = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<W, List<Pair<ICapabilityProvider, E>>> endpointsByWire = new IdentityHashMap<>();
+    private final Set<W> dirtyWires = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<ICapabilityProvider> endpointProviders = new ArrayList<>();
+    private final List<E> endpoints = new ArrayList<>();
+    private final Long2ObjectMap<List<W>> wiresByChunk = new Long2ObjectOpenHashMap<>();
+    private WireChunkTracker.Stamps chunkStamps;
+    private long chunkStamp;
+    private boolean valid = true;
+    private boolean endpointsDirty = true;
+
+    /**
+     * @return The wire to merge into this network, or null if the provider
+     * is not part of it.
+     */
+    @Nullable
+    protected abstract W getNetworkWire(ICapabilityProvider provider, EnumFacing facing);
+
+    /**
+     * @return The endpoint the provider represents, or null if it should be ignored.
+     */
+    @Nullable
+    protected abstract E getEndpoint(ICapabilityProvider provider, EnumFacing facing);
+
+    /**
+     * Called for every wire joining this network; the wire is expected
+     * to remember the network it belongs to.
+     */
+    protected abstract void onWireAdded(W wire);
+
+    /**
+     * Called whenever the flattened endpoint list is recompiled.
+     */
+    protected void onEndpointsCompiled() {
+
+    }
+
+    protected boolean connectsBelowWire() {
+        return true;
+    }
+
+    public final void build(W root) {
+        chunkStamps = WireChunkTracker.get(root.getContainer().world());
+        chunkStamp = chunkStamps.current();
+
+        Queue<W> queue = new ArrayDeque<>();
+        add(root, queue);
+
+        while (!queue.isEmpty()) {
+            scan(queue.remove(), queue);
+        }
+    }
+
+    private void add(W wire, Queue<W> queue) {
+        if (wires.add(wire)) {
+            WireChunkTracker.forEachNearbyChunk(wire.getContainer().pos(), (key) -> wiresByChunk.computeIfAbsent(key, (k) -> new ArrayList<>()).add(wire));
+            onWireAdded(wire);
+            queue.add(wire);
+        }
+    }
+
+    private void scan(W wire, @Nullable Queue<W> queue) {
+        List<Pair<ICapabilityProvider, E>> list = new ArrayList<>();
+
+        for (Pair<ICapabilityProvider, EnumFacing> p : wire.connectedIterator(connectsBelowWire())) {
+            W other = getNetworkWire(p.getKey(), p.getValue());
+            if (other != null) {
+                if (!wires.contains(other)) {
+                    if (queue != null) {
+                        add(other, queue);
+                    } else {
+                        // a previously unknown wire has appeared; let the
+                        // network be rebuilt from scratch
+                        invalidate();
+                        return;
+                    }
+                }
+            } else {
+                E endpoint = getEndpoint(p.getKey(), p.getValue());
+                if (endpoint != null) {
+                    list.add(Pair.of(p.getKey(), endpoint));
+                }
+            }
+        }
+
+        endpointsByWire.put(wire, list);
+        endpointsDirty = true;
+    }
+
+    public final boolean isValid() {
+        return valid;
+    }
+
+    public final void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Marks a wire's neighbours as changed. Only that wire will be
+     * re-scanned on the next endpoint query.
+     */
+    public final void markDirty(W wire) {
+        if (wires.contains(wire)) {
+            dirtyWires.add(wire);
+        }
+    }
+
+    public final Collection<W> getWires() {
+        return Collections.unmodifiableCollection(wires);
+    }
+
+    protected final void updateEndpoints() {
+        if (chunkStamps.current() != chunkStamp) {
+            for (Long2ObjectMap.Entry<List<W>> entry : wiresByChunk.long2ObjectEntrySet()) {
+                if (chunkStamps.changedSince(entry.getLongKey(), chunkStamp)) {
+                    // their neighbour caches notice the change on their own
+                    dirtyWires.addAll(entry.getValue());
+                }
+            }
+            chunkStamp = chunkStamps.current();
+        }
+
+        if (!dirtyWires.isEmpty()) {
+            for (W wire : dirtyWires) {
+                scan(wire, null);
+                if (!valid) {
+                    return;
+                }
+            }
+            dirtyWires.clear();
+        }
+
+        if (endpointsDirty) {
+            Set<ICapabilityProvider> providersSeen = Collections.newSetFromMap(new IdentityHashMap<>());
+            endpointProviders.clear();
+            endpoints.clear();
+
+            for (List<Pair<ICapabilityProvider, E>> list : endpointsByWire.values()) {
+                for (Pair<ICapabilityProvider, E> p : list) {
+                    if (providersSeen.add(p.getKey())) {
+                        endpointProviders.add(p.getKey());
+                        endpoints.add(p.getValue());
+                    }
+                }
+            }
+
+            endpointsDirty = false;
+            onEndpointsCompiled();
+        }
+
+        for (int i = 0; i < endpointProviders.size(); i++) {
+            ICapabilityProvider provider = endpointProviders.get(i);
+            if (provider instanceof TileEntity && ((TileEntity) provider).isInvalid()) {
+                invalidate();
+                return;
+            }
+        }
+    }
+
+    protected final int getEndpointCount() {
+        return endpoints.size();
+    }
+
+    protected final ICapabilityProvider getEndpointProvider(int i) {
+        return endpointProviders.get(i);
+    }
+
+    protected final E getEndpoint(int i) {
+        return endpoints.get(i);
+    }
+}
@@ -38,6 +38,7 @@ import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.ICapabilityProvider;
 import pl.asie.charset.api.wires.WireFace;
 import pl.asie.charset.lib.capability.CapabilityHelper;
+import pl.asie.charset.lib.capability.CapabilityQuery;
 import pl.asie.charset.lib.utils.OcclusionUtils;
 
 import javax.annotation.Nullable;
@@ -66,20 +67,23 @@ public final class WireUtils {
     }
 
     public static boolean hasCapability(Wire wire, BlockPos pos, Capability<?> capability, EnumFacing face, boolean ignoreWires) {
-        TileWire.isWireCheckingForCaps = ignoreWires;
+        IBlockAccess world = wire.getContainer().world();
+
         if (wire.getLocation() != WireFace.CENTER) {
-            Optional<IMultipartContainer> container = MultipartHelper.getContainer(wire.getContainer().world(), pos);
-            if (container.isPresent()) {
-                boolean result = MultipartCapabilityHelper.hasCapability(container.get(), capability, EnumEdgeSlot.fromFaces(wire.getLocation().facing, face), face);
-                TileWire.isWireCheckingForCaps = false;
+            EnumEdgeSlot slot = EnumEdgeSlot.fromFaces(wire.getLocation().facing, face);
+            Boolean result = CapabilityQuery.of(ignoreWires, wire, slot).apply(() -> {
+                Optional<IMultipartContainer> container = MultipartHelper.getContainer(world, pos);
+                return container.isPresent() ? MultipartCapabilityHelper.hasCapability(container.get(), capability, slot, face) : null;
+            });
+            if (result != null) {
                 return result;
             }
         }
 
-        TileEntity tile = wire.getContainer().world().getTileEntity(pos);
-        boolean result = tile != null && tile.hasCapability(capability, face);
-        TileWire.isWireCheckingForCaps = false;
-        return result;
+        return CapabilityQuery.of(ignoreWires, wire, null).apply(() -> {
+            TileEntity tile = world.getTileEntity(pos);
+            return tile != null && tile.hasCapability(capability, face);
+        });
     }
 
     public static ICapabilityProvider getCapabilityProvider(Wire searcher, BlockPos pos, boolean ignoreWires) {
@@ -92,21 +96,19 @@ public final class WireUtils {
     }
 
     public static <T> T getCapability(Wire searcher, BlockPos pos, Capability<T> capability, EnumFacing face, boolean ignoreWires) {
-        TileWire.isWireCheckingForCaps = ignoreWires;
+        IBlockAccess world = searcher.getContainer().world();
 
         // for non-center wires, use multiparts to check for potential edge connections
         if (searcher.getLocation() != WireFace.CENTER) {
-            Optional<IMultipartContainer> container = MultipartHelper.getContainer(searcher.getContainer().world(), pos);
+            EnumEdgeSlot slot = EnumEdgeSlot.fromFaces(searcher.getLocation().facing, face);
+            CapabilityQuery query = CapabilityQuery.of(ignoreWires, searcher, slot);
+            Optional<IMultipartContainer> container = query.apply(() -> MultipartHelper.getContainer(world, pos));
             if (container.isPresent()) {
-                T result = MultipartCapabilityHelper.getCapability(container.get(), capability, EnumEdgeSlot.fromFaces(searcher.getLocation().facing, face), face);
-                TileWire.isWireCheckingForCaps = false;
-                return result;
+                return query.apply(() -> MultipartCapabilityHelper.getCapability(container.get(), capability, slot, face));
             }
         }
 
-        T result = CapabilityHelper.get(searcher.getContainer().world(), pos, capability, face, true, true, false);
-        TileWire.isWireCheckingForCaps = false;
-        return result;
+        return CapabilityHelper.get(CapabilityQuery.of(ignoreWires, searcher, null), world, pos, capability, face, true, true, false);
     }
 
     public static boolean canConnectInternal(Wire wire, WireFace side) {
@@ -133,7 +133,7 @@ public class CharsetAudioNoteblock {
 
     @Mod.EventHandler
     public void init(FMLInitializationEvent event) {
-        packet.registerPacket(0x01, PacketNoteParticle.class);
+        packet.registerPacket(0x01, PacketNoteParticle::new);
     }
 
     @SubscribeEvent(priority = EventPriority.LOW)
@@ -31,7 +31,12 @@ import pl.asie.charset.lib.audio.codec.DFPWM;
 import javax.sound.sampled.AudioFormat;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 public class AudioRecordThread implements Runnable {
 	public static String[] getSupportedExtensions() {
@@ -87,11 +92,15 @@ public class AudioRecordThread implements Runnable {
 	}
 
 	private static final int PACKET_SIZE = 8192;
-	private static final DFPWM CODEC = new DFPWM();
+	private static final int QUEUE_SIZE = 4;
+	private static final byte[] END_OF_STREAM = new byte[0];
+
 	private final File file;
 	private final int maxSize;
 	private int sampleRate = ItemQuartzDisc.DEFAULT_SAMPLE_RATE;
-	private String statusBar = "Encoding...";
+	private volatile String statusBar = "Encoding...";
+	private volatile String error;
+	private volatile boolean stopped;
 
 	public AudioRecordThread(File f, int sampleRate, int maxSize) {
 		this.file = f;
@@ -112,6 +121,177 @@ public class AudioRecordThread implements Runnable {
 		}
 	}
 
+	private void fail(String s) {
+		if (error == null) {
+			error = s;
+		}
+		stopped = true;
+	}
+
+	// Bounded queues give backpressure; polling with a timeout lets every
+	// stage notice when another one has stopped the pipeline.
+	private void put(BlockingQueue<byte[]> queue, byte[] data) throws InterruptedException {
+		while (!stopped) {
+			if (queue.offer(data, 100, TimeUnit.MILLISECONDS)) {
+				return;
+			}
+		}
+	}
+
+	// the encoder keeps going after it stops the stages before it, so only an error ends it
+	private void send(BlockingQueue<byte[]> queue, byte[] data) throws InterruptedException {
+		while (error == null) {
+			if (queue.offer(data, 100, TimeUnit.MILLISECONDS)) {
+				return;
+			}
+		}
+	}
+
+	private byte[] take(BlockingQueue<byte[]> queue) throws InterruptedException {
+		while (!stopped) {
+			byte[] data = queue.poll(100, TimeUnit.MILLISECONDS);
+			if (data != null) {
+				return data;
+			}
+		}
+		return END_OF_STREAM;
+	}
+
+	private Thread startStage(String name, Callable<Void> stage) {
+		Thread thread = new Thread(() -> {
+			try {
+				stage.call();
+			} catch (Exception e) {
+				e.printStackTrace();
+				fail("Strange error!");
+			}
+		}, "Charset audio " + name);
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	private void decode(ICodec codec, BlockingQueue<byte[]> output) throws InterruptedException {
+		try {
+			while (!stopped && !codec.endOfStream()) {
+				SoundBuffer buffer = codec.read();
+				if (buffer == null) {
+					if (!codec.endOfStream()) {
+						fail("Failed to load!");
+					}
+					break;
+				}
+
+				put(output, buffer.audioData);
+			}
+		} finally {
+			codec.cleanup();
+		}
+
+		put(output, END_OF_STREAM);
+	}
+
+	// a first decoding pass only tracks the loudest sample, so that the
+	// audio can be normalized without keeping it in memory; it stops at
+	// the end of what fits on the disc
+	private float findGain(ICodec codec, AudioFormat format) {
+		AudioResampler.PeakMeter meter = new AudioResampler.PeakMeter(format.getSampleSizeInBits(),
+				format.getChannels(), format.isBigEndian(),
+				format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED);
+
+		// every disc byte holds eight samples
+		long frames = (long) Math.ceil((double) maxSize * 8 * format.getSampleRate() / sampleRate) + 1;
+		long remaining = frames * format.getChannels() * (format.getSampleSizeInBits() / 8);
+
+		try {
+			while (!stopped && remaining > 0 && !codec.endOfStream()) {
+				SoundBuffer buffer = codec.read();
+				if (buffer == null) {
+					break;
+				}
+
+				int length = (int) Math.min(buffer.audioData.length, remaining);
+				meter.process(buffer.audioData, length);
+				remaining -= length;
+			}
+		} finally {
+			codec.cleanup();
+		}
+
+		return meter.getGain();
+	}
+
+	private void convert(AudioFormat format, float gain, BlockingQueue<byte[]> input, BlockingQueue<byte[]> output) throws InterruptedException {
+		AudioResampler.Stream stream = new AudioResampler.Stream(format.getSampleSizeInBits(),
+				format.getChannels(), format.isBigEndian(),
+				format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED,
+				(int) format.getSampleRate(), sampleRate, gain);
+
+		byte[] data;
+		while ((data = take(input)) != END_OF_STREAM) {
+			byte[] converted = stream.process(data, data.length, false);
+			if (converted.length > 0) {
+				put(output, converted);
+			}
+		}
+
+		if (!stopped) {
+			put(output, stream.process(data, 0, true));
+			put(output, END_OF_STREAM);
+		}
+	}
+
+	private void encode(BlockingQueue<byte[]> input, BlockingQueue<byte[]> output) throws InterruptedException {
+		DFPWM codec = new DFPWM();
+		byte[] pending = new byte[8];
+		int pendingLength = 0;
+		byte[] packet = new byte[PACKET_SIZE];
+		int packetLength = 0;
+		int written = 0;
+		boolean last = false;
+
+		while (!last && written + packetLength < maxSize) {
+			byte[] data = take(input);
+			if (data == END_OF_STREAM) {
+				if (stopped) {
+					return;
+				}
+
+				// pad the final samples to a whole byte
+				if (pendingLength == 0) {
+					break;
+				}
+				data = new byte[8 - pendingLength];
+				last = true;
+			}
+
+			for (int i = 0; i < data.length && written + packetLength < maxSize; i++) {
+				pending[pendingLength++] = data[i];
+				if (pendingLength == 8) {
+					codec.compress(packet, pending, packetLength++, 0, 1);
+					pendingLength = 0;
+
+					if (packetLength == PACKET_SIZE) {
+						send(output, packet);
+						written += packetLength;
+						packet = new byte[PACKET_SIZE];
+						packetLength = 0;
+					}
+				}
+			}
+		}
+
+		// the disc may be full before the file ends
+		if (written + packetLength >= maxSize) {
+			stopped = true;
+		}
+
+		if (packetLength > 0) {
+			send(output, Arrays.copyOf(packet, packetLength));
+		}
+		send(output, END_OF_STREAM);
+	}
+
 	@Override
 	public void run() {
 		try {
@@ -121,71 +301,72 @@ public class AudioRecordThread implements Runnable {
 			}
 
 			String ext = FilenameUtils.getExtension(file.getName()).toLowerCase();
-			SoundBuffer buffer;
 
 			statusBar = "Loading...";
 
-			ICodec codec = getCodec(ext);
+			ICodec peakCodec = getCodec(ext);
 
-			if (codec == null) {
+			if (peakCodec == null) {
 				showError("Unsupported format!");
 				return;
 			}
 
-			codec.initialize(file.toURI().toURL());
-			if (!codec.initialized()) {
+			peakCodec.initialize(file.toURI().toURL());
+			if (!peakCodec.initialized()) {
 				showError("Failed to load!");
 				return;
 			}
 
-			byte[] data = null;
-			AudioFormat format;
-
-			if (codec instanceof CodecIBXM) {
-				format = codec.getAudioFormat();
-				long maxLength = (long) maxSize * format.getSampleSizeInBits() / 8 * format.getChannels() * (int) format.getSampleRate() / sampleRate;
-				while (!codec.endOfStream() && (data == null || data.length < maxLength)) {
-					buffer = codec.read();
-					if (buffer == null) {
-						showError("Failed to load!");
-						return;
-					}
+			AudioFormat format = peakCodec.getAudioFormat();
+			float gain = findGain(peakCodec, format);
 
-					if (data == null) {
-						data = buffer.audioData;
-					} else {
-						byte[] oldData = data;
-						data = new byte[oldData.length + buffer.audioData.length];
-						System.arraycopy(oldData, 0, data, 0, oldData.length);
-						System.arraycopy(buffer.audioData, 0, data, oldData.length, buffer.audioData.length);
-					}
-				}
-			} else {
-				buffer = codec.readAll();
-				data = buffer.audioData;
-				format = buffer.audioFormat;
+			ICodec codec = getCodec(ext);
+			codec.initialize(file.toURI().toURL());
+			if (!codec.initialized()) {
+				showError("Failed to load!");
+				return;
 			}
+			BlockingQueue<byte[]> decoded = new ArrayBlockingQueue<>(QUEUE_SIZE);
+			BlockingQueue<byte[]> converted = new ArrayBlockingQueue<>(QUEUE_SIZE);
+			BlockingQueue<byte[]> encoded = new ArrayBlockingQueue<>(QUEUE_SIZE);
 
-			statusBar = "Reticulating splines...";
+			statusBar = "Encoding...";
 
-			byte[] preEncodeOutput = AudioResampler.toSigned8(data, format.getSampleSizeInBits(),
-					format.getChannels(), format.isBigEndian(),
-					format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED,
-					(int) format.getSampleRate(), sampleRate, true);
+			startStage("decoder", () -> { decode(codec, decoded); return null; });
+			startStage("resampler", () -> { convert(format, gain, decoded, converted); return null; });
+			startStage("encoder", () -> { encode(converted, encoded); return null; });
 
-			statusBar = "Encoding...";
+			// the last packet has to be flagged, so keep one back
+			byte[] held = null;
+			int totalLength = 0;
+			byte[] data;
 
-			byte[] finalOutput = new byte[(preEncodeOutput.length + 7) >> 3];
-			CODEC.compress(finalOutput, preEncodeOutput, 0, 0, finalOutput.length);
+			while (true) {
+				data = encoded.poll(100, TimeUnit.MILLISECONDS);
+				if (data == null) {
+					if (error != null) {
+						break;
+					}
+					continue;
+				} else if (data == END_OF_STREAM) {
+					break;
+				}
 
-			for (int i = 0; i < finalOutput.length; i += PACKET_SIZE) {
-				int len = Math.min(finalOutput.length - i, PACKET_SIZE);
-				byte[] dataEnc = new byte[len];
-				System.arraycopy(finalOutput, i, dataEnc, 0, len);
+				if (held != null) {
+					CharsetAudioStorage.packet.sendToServer(new PacketDriveData(held, totalLength, false));
+				}
+				held = data;
+				totalLength += data.length;
+				statusBar = "Uploading (" + (totalLength * 8L / sampleRate) + "s)...";
+			}
 
-				statusBar = "Uploading (" + (i * 100 / finalOutput.length) + "%)...";
+			if (error != null) {
+				showError(error);
+				return;
+			}
 
-				CharsetAudioStorage.packet.sendToServer(new PacketDriveData(dataEnc, finalOutput.length, (i + len) >= finalOutput.length));
+			if (held != null) {
+				CharsetAudioStorage.packet.sendToServer(new PacketDriveData(held, totalLength, true));
 			}
 
 			statusBar = "Uploading (100%)...";
@@ -195,6 +376,7 @@ public class AudioRecordThread implements Runnable {
 			Thread.sleep(1250);
 		} catch (Exception e) {
 			e.printStackTrace();
+			fail("Strange error!");
 			statusBar = "Strange error!";
 			try {
 				Thread.sleep(1250);
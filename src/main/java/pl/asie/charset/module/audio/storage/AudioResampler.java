@@ -22,10 +22,9 @@ package pl.asie.charset.module.audio.storage;
 import com.laszlosystems.libresample4j.Resampler;
 
 import java.nio.FloatBuffer;
+import java.util.Arrays;
 
 public final class AudioResampler {
-    private static final Resampler RESAMPLER = new Resampler(true, 0.01, 100);
-
     private AudioResampler() {
 
     }
@@ -34,27 +33,19 @@ public final class AudioResampler {
         return in < min ? min : (in > max ? max : in);
     }
 
-    public static byte[] toSigned8(byte[] data, int sampleSizeBits, int channels, boolean bigEndian, boolean signed, int freqSrc, int freqDst,
-                                   boolean normalize) {
-        if (freqSrc == freqDst && sampleSizeBits == 8 && channels == 1) {
-            if (!signed) {
-                byte[] data2 = new byte[data.length];
-                for (int i = 0; i < data.length; i++) {
-                    data2[i] = (byte) (data[i] ^ 0x80);
-                }
-                return data2;
-            } else {
-                return data.clone();
-            }
-        }
-
-        float[] output = new float[data.length / channels / (sampleSizeBits / 8)];
-        int si = 0;
+    private static int getFrameSize(int sampleSizeBits, int channels) {
+        return channels * (sampleSizeBits / 8);
+    }
 
-        float min = 0.0f;
-        float max = 0.0f;
+    /**
+     * Downmixes the given frames to mono floats in the -1..1 range.
+     *
+     * @return The highest absolute sample value written.
+     */
+    private static float toFloatMono(byte[] data, int si, int frames, int sampleSizeBits, int channels, boolean bigEndian, boolean signed, float[] output) {
+        float peak = 0.0f;
 
-        for(int i = 0; i < output.length; i++) {
+        for(int i = 0; i < frames; i++) {
             int v = 0;
 
             for(int j = 0; j < channels; j++) {
@@ -92,28 +83,182 @@ public final class AudioResampler {
 
             v = (v*2+channels)/(channels*2);
             output[i] = clamp((float) v / 0x800000, -1.0f, 1.0f);
-            if (output[i] < min) {
-                min = output[i];
-            }
-            if (output[i] > max) {
-                max = output[i];
+            if (-output[i] > peak) {
+                peak = -output[i];
+            } else if (output[i] > peak) {
+                peak = output[i];
             }
         }
 
-        float multiplier = min != 0.0f || max != 0.0f ? 1.0f / Math.max(0 - min, max) : 1.0f;
-
-        double factor = (double) freqDst / (double) freqSrc;
-        FloatBuffer resampledBuffer = FloatBuffer.allocate((int) Math.ceil(output.length * factor) + 1024);
-        RESAMPLER.process(factor, FloatBuffer.wrap(output), true, resampledBuffer);
-        float[] resampledOutput = resampledBuffer.array();
-        byte[] preEncodeOutput = new byte[resampledBuffer.position()];
+        return peak;
+    }
 
+    public static byte[] toSigned8(byte[] data, int sampleSizeBits, int channels, boolean bigEndian, boolean signed, int freqSrc, int freqDst,
+                                   boolean normalize) {
+        float gain = 1.0f;
         if (normalize) {
-            for (int i = 0; i < preEncodeOutput.length; i++) {
-                preEncodeOutput[i] = (byte) (clamp(resampledOutput[i] * multiplier, -1.0f, 1.0f) * 127);
+            PeakMeter meter = new PeakMeter(sampleSizeBits, channels, bigEndian, signed);
+            meter.process(data, data.length);
+            gain = meter.getGain();
+        }
+
+        Stream stream = new Stream(sampleSizeBits, channels, bigEndian, signed, freqSrc, freqDst, gain);
+        byte[] first = stream.process(data, data.length, false);
+        byte[] last = stream.process(data, 0, true);
+        if (last.length == 0) {
+            return first;
+        }
+
+        byte[] result = new byte[first.length + last.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(last, 0, result, first.length, last.length);
+        return result;
+    }
+
+    /**
+     * Finds the loudest sample of PCM audio fed in consecutive chunks, so
+     * that a stream can be normalized before it is converted.
+     */
+    public static final class PeakMeter {
+        private final int sampleSizeBits, channels;
+        private final boolean bigEndian, signed;
+        private final byte[] remainder;
+        private final float[] scratch = new float[4096];
+        private int remainderLength;
+        private float peak;
+
+        public PeakMeter(int sampleSizeBits, int channels, boolean bigEndian, boolean signed) {
+            this.sampleSizeBits = sampleSizeBits;
+            this.channels = channels;
+            this.bigEndian = bigEndian;
+            this.signed = signed;
+            this.remainder = new byte[getFrameSize(sampleSizeBits, channels)];
+        }
+
+        public void process(byte[] data, int length) {
+            int frameSize = remainder.length;
+            int offset = 0;
+
+            if (remainderLength > 0) {
+                int copied = Math.min(frameSize - remainderLength, length);
+                System.arraycopy(data, 0, remainder, remainderLength, copied);
+                remainderLength += copied;
+                offset = copied;
+
+                if (remainderLength == frameSize) {
+                    peak = Math.max(peak, toFloatMono(remainder, 0, 1, sampleSizeBits, channels, bigEndian, signed, scratch));
+                    remainderLength = 0;
+                }
             }
+
+            while (length - offset >= frameSize) {
+                int frames = Math.min((length - offset) / frameSize, scratch.length);
+                peak = Math.max(peak, toFloatMono(data, offset, frames, sampleSizeBits, channels, bigEndian, signed, scratch));
+                offset += frames * frameSize;
+            }
+
+            if (offset < length) {
+                System.arraycopy(data, offset, remainder, 0, length - offset);
+                remainderLength = length - offset;
+            }
+        }
+
+        public float getPeak() {
+            return peak;
+        }
+
+        public float getGain() {
+            return peak != 0.0f ? 1.0f / peak : 1.0f;
+        }
+    }
+
+    /**
+     * Converts PCM audio to signed 8-bit mono in consecutive chunks, keeping
+     * the resampler state and any partial frame between calls.
+     *
+     * To normalize, pass the gain found by a {@link PeakMeter} pass over
+     * the whole input.
+     */
+    public static final class Stream {
+        private final Resampler resampler = new Resampler(true, 0.01, 100);
+        private final int sampleSizeBits, channels;
+        private final boolean bigEndian, signed, passthrough;
+        private final double factor;
+        private final float gain;
+        private final byte[] remainder;
+        private int remainderLength;
+
+        public Stream(int sampleSizeBits, int channels, boolean bigEndian, boolean signed, int freqSrc, int freqDst, float gain) {
+            this.sampleSizeBits = sampleSizeBits;
+            this.channels = channels;
+            this.bigEndian = bigEndian;
+            this.signed = signed;
+            this.gain = gain;
+            this.factor = (double) freqDst / (double) freqSrc;
+            this.passthrough = freqSrc == freqDst && sampleSizeBits == 8 && channels == 1 && gain == 1.0f;
+            this.remainder = new byte[getFrameSize(sampleSizeBits, channels)];
         }
 
-        return preEncodeOutput;
+        public byte[] process(byte[] data, int length, boolean last) {
+            if (passthrough) {
+                byte[] output = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    output[i] = signed ? data[i] : (byte) (data[i] ^ 0x80);
+                }
+                return output;
+            }
+
+            int frameSize = remainder.length;
+            int offset = 0;
+            float[] input = new float[(remainderLength + length) / frameSize];
+            int inputPos = 0;
+
+            if (remainderLength > 0) {
+                int copied = Math.min(frameSize - remainderLength, length);
+                System.arraycopy(data, 0, remainder, remainderLength, copied);
+                remainderLength += copied;
+                offset = copied;
+
+                if (remainderLength == frameSize) {
+                    toFloatMono(remainder, 0, 1, sampleSizeBits, channels, bigEndian, signed, input);
+                    inputPos = 1;
+                    remainderLength = 0;
+                }
+            }
+
+            int frames = (length - offset) / frameSize;
+            if (frames > 0) {
+                float[] chunk = inputPos == 0 ? input : new float[frames];
+                toFloatMono(data, offset, frames, sampleSizeBits, channels, bigEndian, signed, chunk);
+                if (chunk != input) {
+                    System.arraycopy(chunk, 0, input, inputPos, frames);
+                }
+                inputPos += frames;
+                offset += frames * frameSize;
+            }
+
+            if (offset < length) {
+                System.arraycopy(data, offset, remainder, 0, length - offset);
+                remainderLength = length - offset;
+            }
+
+            FloatBuffer inputBuffer = FloatBuffer.wrap(input, 0, inputPos);
+            FloatBuffer outputBuffer = FloatBuffer.allocate((int) Math.ceil(inputPos * factor) + 1024);
+            byte[] output = new byte[0];
+
+            do {
+                outputBuffer.clear();
+                resampler.process(factor, inputBuffer, last, outputBuffer);
+
+                int outputPos = output.length;
+                output = Arrays.copyOf(output, outputPos + outputBuffer.position());
+                float[] resampledOutput = outputBuffer.array();
+                for (int i = outputPos; i < output.length; i++) {
+                    output[i] = (byte) (clamp(resampledOutput[i - outputPos] * gain, -1.0f, 1.0f) * 127);
+                }
+            } while (inputBuffer.hasRemaining());
+
+            return output;
+        }
     }
 }
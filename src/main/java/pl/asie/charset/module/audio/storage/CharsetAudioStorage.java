@@ -52,7 +52,6 @@ import pl.asie.charset.module.audio.storage.system.DataStorageCapStorage;
 import pl.asie.charset.module.audio.storage.system.DataStorageManager;
 import pl.asie.charset.module.storage.locks.ContainerKeyring;
 
-import java.io.IOException;
 import java.util.List;
 
 @CharsetModule(
@@ -108,9 +107,9 @@ public class CharsetAudioStorage {
     public void init(FMLInitializationEvent event) {
         RegistryUtils.register(TileRecordPlayer.class, "record_player");
 
-        packet.registerPacket(0x01, PacketUpdateProgressClient.class);
-        packet.registerPacket(0x02, PacketDriveState.class);
-        packet.registerPacket(0x03, PacketDriveData.class);
+        packet.registerPacket(0x01, PacketUpdateProgressClient::new);
+        packet.registerPacket(0x02, PacketDriveState::new);
+        packet.registerPacket(0x03, PacketDriveData::new);
 
         GuiHandlerCharset.INSTANCE.register(GuiHandlerCharset.RECORD_PLAYER, Side.SERVER, (r) -> {
             TileEntity tile = r.getTileEntity();
@@ -142,11 +141,7 @@ public class CharsetAudioStorage {
     @Mod.EventHandler
     public void serverStop(FMLServerStoppedEvent event) {
         if (storageManager != null) {
-            try {
-                storageManager.save();
-            } catch (IOException e) {
-
-            }
+            storageManager.close();
             MinecraftForge.EVENT_BUS.unregister(storageManager);
         }
         storageManager = null;
@@ -20,11 +20,12 @@
 package pl.asie.charset.module.audio.storage.system;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
-
-import net.minecraftforge.fml.common.FMLCommonHandler;
-import net.minecraftforge.fml.relauncher.Side;
 
 import pl.asie.charset.ModCharset;
 import pl.asie.charset.api.tape.IDataStorage;
@@ -34,40 +35,53 @@ public class DataStorage implements IDataStorage {
 	private String uniqueId;
 	private File file;
 	private int size;
-	private byte[] data;
+	private boolean initialized;
+	private ByteBuffer data;
 	private int position;
+	private final Object dirtyLock = new Object();
 	private boolean dirty;
 
 	public DataStorage() {
 	}
 
 	public boolean isInitialized() {
-		return data != null;
+		return initialized;
 	}
 
 	boolean initializeContents() {
-		if (file == null && CharsetAudioStorage.storageManager.isReady()) {
+		if (data != null) {
+			return file != null;
+		}
+
+		DataStorageManager manager = CharsetAudioStorage.storageManager;
+		if (manager != null && manager.isReady()) {
 			if (this.uniqueId == null) {
-				this.uniqueId = CharsetAudioStorage.storageManager.generateUID();
+				this.uniqueId = manager.generateUID();
 			}
 
-			this.file = CharsetAudioStorage.storageManager.getFileForId(this.uniqueId);
-			if (!file.exists()) {
-				try {
-					file.createNewFile();
-					writeFile();
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-			} else {
-				try {
-					readFile();
-				} catch (Exception e) {
+			this.file = manager.getFileForId(this.uniqueId);
+			File legacyFile = manager.getLegacyFileForId(this.uniqueId);
+			if (!file.exists() && legacyFile.exists() && !migrateLegacyFile(legacyFile)) {
+				// keep the legacy file around for the next attempt
+				file = null;
+			}
+
+			if (file != null) {
+				try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+					// the mapping stays valid after the channel is closed
+					data = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+				} catch (IOException e) {
 					e.printStackTrace();
+					file = null;
 				}
 			}
 		}
 
+		if (data == null) {
+			// no save directory (or mapping failed) - keep the contents on heap
+			data = ByteBuffer.allocate(size);
+		}
+
 		return file != null;
 	}
 
@@ -80,7 +94,9 @@ public class DataStorage implements IDataStorage {
 
 		this.position = position;
 		this.size = size;
-		this.data = new byte[size];
+		this.initialized = true;
+		this.data = null;
+		this.file = null;
 
 		if (this.position >= size) {
 			this.position = size - 1;
@@ -129,9 +145,9 @@ public class DataStorage implements IDataStorage {
 		initializeContents();
 
 		if (simulate) {
-			return (int) data[position] & 0xFF;
+			return (int) data.get(position) & 0xFF;
 		} else {
-			return (int) data[position++] & 0xFF;
+			return (int) data.get(position++) & 0xFF;
 		}
 	}
 
@@ -143,7 +159,9 @@ public class DataStorage implements IDataStorage {
 
 		initializeContents();
 
-		System.arraycopy(data, position + offset, v, 0, len);
+		ByteBuffer view = data.duplicate();
+		view.position(position + offset);
+		view.get(v, 0, len);
 		if (!simulate) {
 			position += len;
 		}
@@ -160,8 +178,8 @@ public class DataStorage implements IDataStorage {
 
 		initializeContents();
 
-		dirty = true;
-		data[position++] = v;
+		markDirty();
+		data.put(position++, v);
 	}
 
 	public int write(byte[] v) {
@@ -172,72 +190,119 @@ public class DataStorage implements IDataStorage {
 
 		initializeContents();
 
-		System.arraycopy(v, 0, data, position, len);
+		ByteBuffer view = data.duplicate();
+		view.position(position);
+		view.put(v, 0, len);
+		markDirty();
 		position += len;
 
-		dirty = true;
 		return len;
 	}
 
-	void readFile() throws IOException {
-		// Before reading the file, save any previous potential copies to
-		// prevent race conditions.
-		CharsetAudioStorage.storageManager.save();
-
-		FileInputStream fileStream = new FileInputStream(file);
-		GZIPInputStream stream = new GZIPInputStream(fileStream);
+	private void markDirty() {
+		if (file != null) {
+			boolean wasClean;
+			synchronized (dirtyLock) {
+				wasClean = !dirty;
+				dirty = true;
+			}
 
-		int version = stream.read();
-		if (version == 1) {
-			int b1 = stream.read() & 0xFF;
-			int b2 = stream.read() & 0xFF;
-			int b3 = stream.read() & 0xFF;
-			int b4 = stream.read() & 0xFF;
-			this.position = b1 | (b2 << 8) | (b3 << 16) | (b4 << 24);
-			if (position < 0 || position >= size) {
-				position = 0;
+			DataStorageManager manager = CharsetAudioStorage.storageManager;
+			if (wasClean && manager != null) {
+				manager.markSaveNeeded(this);
 			}
 		}
+	}
+
+	/**
+	 * Converts a legacy file into a temporary file, which is only moved
+	 * into place once it has been fully written and synced - so a failed
+	 * or interrupted migration is simply retried on the next access.
+	 */
+	private boolean migrateLegacyFile(File legacyFile) {
+		File tempFile = new File(file.getPath() + ".tmp");
 
-		int dataPos = 0;
 		try {
-			while (dataPos < this.data.length) {
-				int s = stream.read(this.data, dataPos, this.data.length - dataPos);
-				if (s >= 0) {
-					dataPos += s;
-				} else {
-					break;
-				}
+			try (FileOutputStream stream = new FileOutputStream(tempFile)) {
+				readLegacyFile(legacyFile, stream);
+				stream.getFD().sync();
 			}
-		} catch (EOFException e) {
-			ModCharset.logger.warn("Audio file " + getUniqueId() + " might have been corrupted.");
-			dirty = true;
+
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			ModCharset.logger.error("Could not migrate audio file " + legacyFile.getName() + "!", e);
+			if (tempFile.exists() && !tempFile.delete()) {
+				ModCharset.logger.warn("Could not remove temporary audio file " + tempFile.getName() + "!");
+			}
+			return false;
 		}
 
-		stream.close();
-		fileStream.close();
+		if (!legacyFile.delete()) {
+			ModCharset.logger.warn("Could not remove migrated audio file " + legacyFile.getName() + "!");
+		}
+		return true;
 	}
 
-	void writeFile() throws IOException {
-		if (FMLCommonHandler.instance().getEffectiveSide() == Side.SERVER) {
-			initializeContents();
-
-			FileOutputStream fileStream = new FileOutputStream(file);
-			GZIPOutputStream stream = new GZIPOutputStream(fileStream);
+	private void readLegacyFile(File legacyFile, OutputStream out) throws IOException {
+		try (GZIPInputStream stream = new GZIPInputStream(new FileInputStream(legacyFile))) {
+			int version = stream.read();
+			if (version == 1) {
+				int b1 = stream.read() & 0xFF;
+				int b2 = stream.read() & 0xFF;
+				int b3 = stream.read() & 0xFF;
+				int b4 = stream.read() & 0xFF;
+				int legacyPosition = b1 | (b2 << 8) | (b3 << 16) | (b4 << 24);
+				// version 1 files kept the play position alongside the contents
+				this.position = legacyPosition >= 0 && legacyPosition < size ? legacyPosition : 0;
+			}
 
-			stream.write(2);
-			stream.write(data);
-			stream.finish();
-			stream.flush();
-			stream.close();
-			fileStream.close();
+			byte[] buffer = new byte[65536];
+			int remaining = size;
+			try {
+				while (remaining > 0) {
+					int s = stream.read(buffer, 0, Math.min(buffer.length, remaining));
+					if (s >= 0) {
+						out.write(buffer, 0, s);
+						remaining -= s;
+					} else {
+						break;
+					}
+				}
+			} catch (EOFException e) {
+				ModCharset.logger.warn("Audio file " + getUniqueId() + " might have been corrupted.");
+			}
+		}
+	}
 
+	/**
+	 * Writes the contents back to disk. Safe to call from any thread.
+	 *
+	 * The whole mapping is forced; the OS only writes back the pages which
+	 * were modified since the last force, so no region tracking is kept here.
+	 *
+	 * @return Whether there were unsaved changes.
+	 */
+	boolean flush() {
+		boolean wasDirty;
+		synchronized (dirtyLock) {
+			wasDirty = dirty;
 			dirty = false;
 		}
+
+		if (wasDirty && data instanceof MappedByteBuffer) {
+			((MappedByteBuffer) data).force();
+		}
+
+		return wasDirty;
 	}
 
 	public void onUnload() throws IOException {
-		if (dirty) {
+		boolean wasDirty;
+		synchronized (dirtyLock) {
+			wasDirty = dirty;
+		}
+
+		if (wasDirty && CharsetAudioStorage.storageManager != null) {
 			CharsetAudioStorage.storageManager.markSaveNeeded(this);
 		}
 	}
@@ -20,13 +20,15 @@
 package pl.asie.charset.module.audio.storage.system;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import net.minecraftforge.common.DimensionManager;
 
@@ -38,6 +40,11 @@ import pl.asie.charset.ModCharset;
 public class DataStorageManager {
 	private static final Random rand = new Random();
 	private final Map<String, DataStorage> dirtyMap = new HashMap<>();
+	private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor((r) -> {
+		Thread thread = new Thread(r, "Charset data storage flush");
+		thread.setDaemon(true);
+		return thread;
+	});
 	private long lastSave = 0L;
 	private File saveDir;
 
@@ -67,11 +74,7 @@ public class DataStorageManager {
 				shouldStore = dirtyMap.size() > 0;
 			}
 			if (shouldStore && (lastSave + 30000L) < getCurrentTime()) {
-				try {
-					save();
-				} catch (IOException e) {
-
-				}
+				save();
 			}
 		}
 	}
@@ -84,20 +87,40 @@ public class DataStorageManager {
 		}
 	}
 
-	public void save() throws IOException {
+	/**
+	 * Queues all dirty storages to be flushed to disk on a background thread.
+	 */
+	public void save() {
 		Set<DataStorage> dirtySetClone = new HashSet<>();
 		synchronized (dirtyMap) {
 			dirtySetClone.addAll(dirtyMap.values());
 			dirtyMap.clear();
 		}
 
-		for (DataStorage impl : dirtySetClone) {
-			impl.writeFile();
+		lastSave = getCurrentTime();
+		if (!dirtySetClone.isEmpty()) {
+			flushExecutor.execute(() -> {
+				for (DataStorage impl : dirtySetClone) {
+					impl.flush();
+				}
+			});
+		}
+	}
+
+	public void close() {
+		save();
+		flushExecutor.shutdown();
+		try {
+			if (!flushExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+				ModCharset.logger.warn("Timed out waiting for data storage to be flushed!");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
 	}
 
 	private String filename(String storageName) {
-		return storageName + ".dat";
+		return storageName + ".bin";
 	}
 
 	String generateUID() {
@@ -118,7 +141,7 @@ public class DataStorageManager {
 	}
 
 	public boolean exists(String name) {
-		return getFileForId(name).exists();
+		return getFileForId(name).exists() || getLegacyFileForId(name).exists();
 	}
 
 	public boolean isReady() {
@@ -128,4 +151,12 @@ public class DataStorageManager {
 	public File getFileForId(String name) {
 		return new File(saveDir, filename(name));
 	}
+
+	/**
+	 * @return The gzipped file used before storages were memory-mapped;
+	 * it is migrated on first access.
+	 */
+	File getLegacyFileForId(String name) {
+		return new File(saveDir, name + ".dat");
+	}
 }
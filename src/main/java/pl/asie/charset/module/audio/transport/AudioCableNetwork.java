@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.module.audio.transport;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import pl.asie.charset.api.audio.AudioPacket;
+import pl.asie.charset.api.audio.IAudioReceiver;
+import pl.asie.charset.lib.capability.Capabilities;
+import pl.asie.charset.lib.wires.WireNetwork;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+public class AudioCableNetwork extends WireNetwork<WireAudioCable, IAudioReceiver> {
+    // a packet may enter the network through several cables (or loop back
+    // in through a receiver bridging two networks), but is only fanned out once per tick
+    private final Set<AudioPacket> receivedPackets = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long lastReceivedTime = -1;
+    private boolean delivering;
+
+    @Override
+    protected WireAudioCable getNetworkWire(ICapabilityProvider provider, EnumFacing facing) {
+        return provider instanceof WireAudioCable ? (WireAudioCable) provider : null;
+    }
+
+    @Override
+    protected IAudioReceiver getEndpoint(ICapabilityProvider provider, EnumFacing facing) {
+        return provider.hasCapability(Capabilities.AUDIO_RECEIVER, facing) ? provider.getCapability(Capabilities.AUDIO_RECEIVER, facing) : null;
+    }
+
+    @Override
+    protected void onWireAdded(WireAudioCable wire) {
+        wire.network = this;
+    }
+
+    public boolean update() {
+        if (!delivering) {
+            updateEndpoints();
+        }
+        return isValid();
+    }
+
+    public boolean receive(AudioPacket packet, long time) {
+        if (lastReceivedTime != time) {
+            lastReceivedTime = time;
+            receivedPackets.clear();
+        }
+
+        if (!receivedPackets.add(packet)) {
+            return false;
+        }
+
+        boolean wasDelivering = delivering;
+        delivering = true;
+
+        try {
+            boolean received = false;
+            for (int i = 0; i < getEndpointCount(); i++) {
+                received |= getEndpoint(i).receive(packet);
+            }
+
+            return received;
+        } finally {
+            delivering = wasDelivering;
+        }
+    }
+}
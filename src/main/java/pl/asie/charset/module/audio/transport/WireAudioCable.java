@@ -25,22 +25,28 @@ import net.minecraftforge.common.capabilities.Capability;
 import pl.asie.charset.api.audio.AudioPacket;
 import pl.asie.charset.api.audio.IAudioReceiver;
 import pl.asie.charset.api.wires.WireFace;
+import pl.asie.charset.lib.block.TileBase;
 import pl.asie.charset.lib.capability.Capabilities;
 import pl.asie.charset.lib.wires.IWireContainer;
 import pl.asie.charset.lib.wires.Wire;
 import pl.asie.charset.lib.wires.WireProvider;
 import pl.asie.charset.lib.wires.WireUtils;
 
-import java.util.HashSet;
-import java.util.Set;
-
 public class WireAudioCable extends Wire implements IAudioReceiver {
     public WireAudioCable(IWireContainer container, WireProvider factory, WireFace location) {
         super(container, factory, location);
     }
 
-    private final Set<AudioPacket> receivedPackets = new HashSet<>();
-    private long lastReceivedTime = -1;
+    AudioCableNetwork network;
+
+    protected AudioCableNetwork getNetwork() {
+        if (network == null || !network.update()) {
+            new AudioCableNetwork().build(this);
+            network.update();
+        }
+
+        return network;
+    }
 
     @Override
     public boolean canConnectBlock(BlockPos pos, EnumFacing direction) {
@@ -50,23 +56,29 @@ public class WireAudioCable extends Wire implements IAudioReceiver {
 
     @Override
     public boolean receive(AudioPacket packet) {
-        if (lastReceivedTime != getContainer().world().getTotalWorldTime()) {
-            lastReceivedTime = getContainer().world().getTotalWorldTime();
-            receivedPackets.clear();
-        }
+        return getNetwork().receive(packet, getContainer().world().getTotalWorldTime());
+    }
 
-        if (receivedPackets.contains(packet)) {
-            return false;
+    @Override
+    public void onChanged(boolean external) {
+        super.onChanged(external);
+        if (network != null) {
+            network.markDirty(this);
         }
+    }
 
-        receivedPackets.add(packet);
-
-        boolean received = false;
-        for (IAudioReceiver receiver : connectedIterator(Capabilities.AUDIO_RECEIVER, true)) {
-            received |= receiver.receive(packet);
+    @Override
+    protected void onConnectionsChanged() {
+        if (network != null) {
+            network.invalidate();
         }
+    }
 
-        return received;
+    @Override
+    public void onInvalidate(TileBase.InvalidationType type) {
+        if (network != null) {
+            network.invalidate();
+        }
     }
 
     @Override
@@ -72,7 +72,7 @@ public class CharsetCraftingCompression {
 	@Mod.EventHandler
 	public void onInit(FMLInitializationEvent event) {
 		RegistryUtils.register(TileCompressionCrafter.class, "compression_crafter");
-		packet.registerPacket(0x01, PacketCompactAnimation.class);
+		packet.registerPacket(0x01, PacketCompactAnimation::new);
 
 		proxy.init();
 	}
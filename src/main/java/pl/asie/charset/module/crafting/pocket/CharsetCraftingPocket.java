@@ -67,7 +67,7 @@ public class CharsetCraftingPocket {
 
 	@Mod.EventHandler
 	public void init(FMLInitializationEvent event) {
-		packet.registerPacket(0x01, PacketPTAction.class);
+		packet.registerPacket(0x01, PacketPTAction::new);
 		GuiHandlerCharset.INSTANCE.register(GuiHandlerCharset.POCKET_TABLE, Side.SERVER, (r) -> new ContainerPocketTable(r.player));
 	}
 
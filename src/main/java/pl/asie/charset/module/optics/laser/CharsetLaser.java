@@ -185,8 +185,8 @@ public class CharsetLaser {
         FMLInterModComms.sendMessage("charset", "addCarry", blockJar.getRegistryName());
         FMLInterModComms.sendMessage("charset", "addCarry", blockPrism.getRegistryName());
 
-        packet.registerPacket(0x01, PacketBeamAdd.class);
-        packet.registerPacket(0x02, PacketBeamRemove.class);
+        packet.registerPacket(0x01, PacketBeamAdd::new);
+        packet.registerPacket(0x02, PacketBeamRemove::new);
 
         ShiftScrollHandler.INSTANCE.register(new ShiftScrollHandler.ItemGroup(itemCrystal));
         ShiftScrollHandler.INSTANCE.register(new ShiftScrollHandler.ItemGroup(itemJar));
@@ -63,13 +63,21 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 	protected float vcdist;
 
 	public LaserBeam(@Nonnull ILaserSource source, @Nonnull World world, @Nonnull BlockPos start, @Nonnull EnumFacing facing, @Nonnull LaserColor color) {
+		this(source, world, start, facing, color, 0);
+	}
+
+	/**
+	 * @param knownClear The number of blocks past the start which are known
+	 *                   not to block the beam, and do not need to be traced.
+	 */
+	public LaserBeam(@Nonnull ILaserSource source, @Nonnull World world, @Nonnull BlockPos start, @Nonnull EnumFacing facing, @Nonnull LaserColor color, int knownClear) {
 		this.id = ID_COUNTER++;
 		this.source = source;
 		this.world = world;
 		this.start = start;
 		this.direction = facing;
 		this.color = color;
-		this.end = calculateEnd();
+		this.end = calculateEnd(Math.max(0, Math.min(knownClear, MAX_DISTANCE - 1)));
 
 		validate();
 	}
@@ -231,10 +239,10 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 		return false;
 	}
 
-	private BlockPos calculateEnd() {
+	private BlockPos calculateEnd(int knownClear) {
 		boolean foundEnd = false;
-		int i = 0;
-		BlockPos.MutableBlockPos endPos = new BlockPos.MutableBlockPos(start);
+		int i = knownClear;
+		BlockPos.MutableBlockPos endPos = new BlockPos.MutableBlockPos(start.offset(direction, knownClear));
 		Chunk chunk = world.getChunkFromBlockCoords(endPos);
 
 		while (i < MAX_DISTANCE && !foundEnd) {
@@ -271,6 +279,14 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 	}
 
 	public boolean isValid() {
+		return isValid(1);
+	}
+
+	/**
+	 * Checks the beam's validity, assuming all blocks closer to the start
+	 * than fromDistance are known to be unchanged.
+	 */
+	public boolean isValid(int fromDistance) {
 		if (!isValidated || !source.isCacheValid()) {
 			/* if (!isValidated) {
 				System.out.println("INVALID - flag: " + this);
@@ -290,8 +306,17 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 			return false;
 		}
 
-		BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos(start);
-		for (int i = 0; i < length - 1; i++) {
+		fromDistance = Math.max(1, fromDistance);
+		if (fromDistance >= length) {
+			return true;
+		}
+
+		BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos(start.offset(direction, fromDistance - 1));
+		if (direction.getAxis() != EnumFacing.Axis.Y) {
+			chunk = world.getChunkFromBlockCoords(pos);
+		}
+
+		for (int i = fromDistance - 1; i < length - 1; i++) {
 			pos.move(direction);
 			switch (direction) {
 				case UP:
@@ -359,6 +384,30 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 		return String.format("LaserBeam{%s-[%s]->%s, %s}", start.toString(), direction.name(), end.toString(), color.name());
 	}
 
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return The distance of the given position from the start along the
+	 * beam, or -1 if the beam does not cross it.
+	 */
+	public int getDistance(BlockPos pos) {
+		int dx = pos.getX() - start.getX();
+		int dy = pos.getY() - start.getY();
+		int dz = pos.getZ() - start.getZ();
+		int d = dx * direction.getFrontOffsetX() + dy * direction.getFrontOffsetY() + dz * direction.getFrontOffsetZ();
+		if (d < 0 || d > length) {
+			return -1;
+		}
+
+		if (dx != d * direction.getFrontOffsetX() || dy != d * direction.getFrontOffsetY() || dz != d * direction.getFrontOffsetZ()) {
+			return -1;
+		}
+
+		return d;
+	}
+
 	public long getId() {
 		return id;
 	}
@@ -31,18 +31,41 @@ import pl.asie.charset.module.optics.laser.CharsetLaser;
 
 public final class LaserBeamFactory implements ILaserBeamFactory {
 	public static final LaserBeamFactory INSTANCE = new LaserBeamFactory();
+	private LaserBeam retraceBase;
+	private int retraceKnownClear;
 
 	private LaserBeamFactory() {
 
 	}
 
+	/**
+	 * Lets a beam replacing the given one skip re-tracing the part of its
+	 * path which is known to be unchanged.
+	 */
+	void setRetraceHint(LaserBeam base, int knownClear) {
+		retraceBase = base;
+		retraceKnownClear = knownClear;
+	}
+
+	void clearRetraceHint() {
+		retraceBase = null;
+	}
+
+	private int getKnownClear(World world, BlockPos pos, EnumFacing facing) {
+		if (retraceBase != null && retraceBase.getWorld() == world && retraceBase.getDirection() == facing && retraceBase.getStart().equals(pos)) {
+			return retraceKnownClear;
+		} else {
+			return 0;
+		}
+	}
+
 	@Override
 	public ILaserBeam create(TileEntity tile, EnumFacing facing, LaserColor color) {
-		return new LaserBeam(tile.getCapability(CharsetLaser.LASER_SOURCE, facing), tile.getWorld(), tile.getPos(), facing, color);
+		return new LaserBeam(tile.getCapability(CharsetLaser.LASER_SOURCE, facing), tile.getWorld(), tile.getPos(), facing, color, getKnownClear(tile.getWorld(), tile.getPos(), facing));
 	}
 
 	@Override
 	public ILaserBeam create(ILaserSource source, World world, BlockPos pos, EnumFacing facing, LaserColor color) {
-		return new LaserBeam(source, world, pos, facing, color);
+		return new LaserBeam(source, world, pos, facing, color, getKnownClear(world, pos, facing));
 	}
 }
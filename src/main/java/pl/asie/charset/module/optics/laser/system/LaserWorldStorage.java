@@ -21,6 +21,8 @@ package pl.asie.charset.module.optics.laser.system;
 
 import com.google.common.collect.*;
 import it.unimi.dsi.fastutil.longs.*;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
@@ -185,8 +187,13 @@ public class LaserWorldStorage implements IWorldEventListener {
 	};
 
 	private final Long2ObjectOpenHashMap<Set<ILaserEndpoint>> endpoints = new Long2ObjectOpenHashMap<>();
-	private final LongSet validatedLasers = new LongOpenHashSet();
-	private final LongSet chunksToRescan = new LongOpenHashSet();
+	// every block a beam passes through, from its start to its end inclusive
+	private final Long2ObjectOpenHashMap<Set<LaserBeam>> beamsByBlock = new Long2ObjectOpenHashMap<>();
+	// every chunk a beam passes through
+	private final Long2ObjectOpenHashMap<Set<LaserBeam>> beamsByChunk = new Long2ObjectOpenHashMap<>();
+	// beam -> distance of the closest changed block from the beam's start
+	private final Object2IntOpenHashMap<LaserBeam> beamsToRevalidate = new Object2IntOpenHashMap<>();
+	private final Object2IntOpenHashMap<LaserBeam> retraceHints = new Object2IntOpenHashMap<>();
 	private final Queue<BlockPos> newLasersQueue = new ArrayDeque<>();
 	protected final World world;
 	private final boolean updates;
@@ -197,18 +204,42 @@ public class LaserWorldStorage implements IWorldEventListener {
 	public LaserWorldStorage(World world, boolean updates) {
 		this.world = world;
 		this.updates = updates;
+		this.beamsToRevalidate.defaultReturnValue(Integer.MAX_VALUE);
 	}
 
-	private void addChunkToRescan(BlockPos blockPos) {
-		addChunkToRescan(blockPos.getX() >> 4, blockPos.getZ() >> 4);
+	private static void index(Long2ObjectOpenHashMap<Set<LaserBeam>> map, long k, LaserBeam beam, boolean add) {
+		Set<LaserBeam> set = map.get(k);
+		if (add) {
+			if (set == null) {
+				set = Collections.newSetFromMap(new IdentityHashMap<>());
+				map.put(k, set);
+			}
+			set.add(beam);
+		} else if (set != null && set.remove(beam) && set.isEmpty()) {
+			map.remove(k);
+		}
 	}
 
-	private void addChunkToRescan(ChunkPos chunkPos) {
-		addChunkToRescan(chunkPos.x, chunkPos.z);
+	private void indexBeam(LaserBeam beam, boolean add) {
+		BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos(beam.getStart());
+		long lastChunk = 0;
+		for (int i = 0; i <= beam.getLength(); i++) {
+			index(beamsByBlock, pos.toLong(), beam, add);
+
+			long chunk = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+			if (i == 0 || chunk != lastChunk) {
+				index(beamsByChunk, chunk, beam, add);
+				lastChunk = chunk;
+			}
+			pos.move(beam.getDirection());
+		}
 	}
 
-	private void addChunkToRescan(int x, int z) {
-		chunksToRescan.add(ChunkPos.asLong(x, z));
+	private void markForRevalidation(LaserBeam beam, int distance) {
+		distance = Math.max(1, distance);
+		if (distance < beamsToRevalidate.getInt(beam)) {
+			beamsToRevalidate.put(beam, distance);
+		}
 	}
 
 	protected boolean isEndpointHit(BlockPos pos, EnumFacing facing) {
@@ -262,9 +293,9 @@ public class LaserWorldStorage implements IWorldEventListener {
 
 	public void onTick() {
 		if (updates)
-			runChunkRescanQueue();
+			runRevalidationQueue();
 		else {
-			chunksToRescan.clear();
+			beamsToRevalidate.clear();
 			newLasersQueue.clear();
 		}
 	}
@@ -290,7 +321,12 @@ public class LaserWorldStorage implements IWorldEventListener {
 			ILaserSource src = tile.getCapability(CharsetLaser.LASER_SOURCE, facing);
 			if (src != null) {
 				LaserBeam oldBeam = (LaserBeam) src.getBeam();
+				int knownClear = oldBeam != null ? retraceHints.removeInt(oldBeam) : 0;
+				if (knownClear > 0) {
+					LaserBeamFactory.INSTANCE.setRetraceHint(oldBeam, knownClear);
+				}
 				src.updateBeam(LaserBeamFactory.INSTANCE);
+				LaserBeamFactory.INSTANCE.clearRetraceHint();
 				LaserBeam newBeam = (LaserBeam) src.getBeam();
 
 				if (oldBeam != newBeam) {
@@ -320,26 +356,19 @@ public class LaserWorldStorage implements IWorldEventListener {
 	// Avoid recreating the arrays every tick
 	Queue<LaserBeam> lasersToRespawn = new ArrayDeque<>();
 
-	private void runChunkRescanQueue() {
-		while (!chunksToRescan.isEmpty()) {
-			LongIterator it = chunksToRescan.iterator();
-			while (it.hasNext()) {
-				long cv = it.next();
-				Set<LaserBeam> set = laserBeams.get(cv);
-				if (set != null) {
-					for (LaserBeam beam : set) {
-						if (!validatedLasers.contains(beam.getId())) {
-							if (!beam.isValid()) {
-								lasersToRespawn.add(beam);
-							} else {
-								validatedLasers.add(beam.getId());
-							}
-						}
-					}
+	private void runRevalidationQueue() {
+		while (!beamsToRevalidate.isEmpty()) {
+			for (Object2IntMap.Entry<LaserBeam> entry : beamsToRevalidate.object2IntEntrySet()) {
+				LaserBeam beam = entry.getKey();
+				int distance = entry.getIntValue();
+				if (!beam.isValid(distance)) {
+					lasersToRespawn.add(beam);
+					// everything before the first changed block is still clear
+					retraceHints.put(beam, Math.min(distance, beam.getLength()) - 1);
 				}
 			}
 
-			chunksToRescan.clear();
+			beamsToRevalidate.clear();
 
 			for (LaserBeam beam : lasersToRespawn) {
 				remove(beam, false);
@@ -348,11 +377,10 @@ public class LaserWorldStorage implements IWorldEventListener {
 			while (!lasersToRespawn.isEmpty()) {
 				LaserBeam beam = lasersToRespawn.remove();
 				respawnBeam(beam.getWorld().getTileEntity(beam.getStart()), beam.getDirection());
+				retraceHints.removeInt(beam);
 			}
 		}
 
-		validatedLasers.clear();
-
 		while (!newLasersQueue.isEmpty()) {
 			BlockPos pos = newLasersQueue.remove();
 			respawnAllBeams(world.getTileEntity(pos));
@@ -386,6 +414,9 @@ public class LaserWorldStorage implements IWorldEventListener {
 			if (/* updates && */(CharsetLaser.REDSTONE_HOOK_ACTIVE)) {
 				addEndpoint(beam);
 			}
+			if (updates) {
+				indexBeam(beam, true);
+			}
 			beam.onAdd(/* updates */ true);
 			return true;
 		} else {
@@ -399,25 +430,8 @@ public class LaserWorldStorage implements IWorldEventListener {
 				if (CharsetLaser.REDSTONE_HOOK_ACTIVE) {
 					removeEndpoint(beam);
 				}
-				int cx1 = beam.getStart().getX() >> 4;
-				int cz1 = beam.getStart().getZ() >> 4;
-				int cx2 = beam.getEnd().getX() >> 4;
-				int cz2 = beam.getEnd().getZ() >> 4;
-				if (cx2 < cx1) {
-					int t = cx1;
-					cx1 = cx2;
-					cx2 = t;
-				}
-
-				if (cz2 < cz1) {
-					int t = cz1;
-					cz1 = cz2;
-					cz2 = t;
-				}
-
-				for (int cz = cz1; cz <= cz2; cz++)
-					for (int cx = cx1; cx <= cx2; cx++)
-						addChunkToRescan(cx, cz);
+				indexBeam(beam, false);
+				beamsToRevalidate.removeInt(beam);
 			}
 
 			beam.onRemove(/* updates */ true);
@@ -427,35 +441,31 @@ public class LaserWorldStorage implements IWorldEventListener {
 		}
 	}
 
-	protected int getChunkRadius() {
-		// 1 = +0 chunks, 2 = +1 chunk ... 17 = +1 chunk, 18 = +2 chunks
-		return (LaserBeam.MAX_DISTANCE + 14) / 16;
-	}
-
 	public void rescanAllAffectedChunks(ChunkPos c) {
 		if (updates) {
-			addChunkToRescan(c);
-			int chunkDiff = getChunkRadius();
-			int chunkX = c.x;
-			int chunkZ = c.z;
-			for (int d = -chunkDiff; d <= chunkDiff; d++) {
-				addChunkToRescan(chunkX + d, chunkZ);
-				addChunkToRescan(chunkX, chunkZ + d);
+			Set<LaserBeam> set = beamsByChunk.get(ChunkPos.asLong(c.x, c.z));
+			if (set != null) {
+				for (LaserBeam beam : set) {
+					markForRevalidation(beam, 1);
+				}
 			}
 		}
 	}
 
 	public void rescan(World worldIn, BlockPos pos) {
-		// TODO: This is horrendous.
-		rescanAllAffectedChunks(new ChunkPos(pos));
+		if (updates) {
+			Set<LaserBeam> set = beamsByBlock.get(pos.toLong());
+			if (set != null) {
+				for (LaserBeam beam : set) {
+					markForRevalidation(beam, beam.getDistance(pos));
+				}
+			}
+		}
 	}
 
 	@Override
 	public void notifyBlockUpdate(World worldIn, BlockPos pos, IBlockState oldState, IBlockState newState, int flags) {
-		//if (oldState != newState) {
-		validatedLasers.clear();
 		rescan(worldIn, pos);
-		//}
 	}
 
 	@Override
@@ -108,7 +108,7 @@ public class CharsetProjector {
 	@Mod.EventHandler
 	public void init(FMLInitializationEvent event) {
 		RegistryUtils.register(TileProjector.class, "projector");
-		packet.registerPacket(0x01, PacketRequestMapData.class);
+		packet.registerPacket(0x01, PacketRequestMapData::new);
 	}
 
 	@Mod.EventHandler
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.module.power.electric;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.energy.CapabilityEnergy;
+import net.minecraftforge.energy.IEnergyStorage;
+import pl.asie.charset.lib.wires.WireNetwork;
+
+public class ElectricNetwork extends WireNetwork<WireElectric, IEnergyStorage> {
+	private int[] received = new int[0];
+	private boolean sending;
+
+	private IEnergyStorage getStorage(ICapabilityProvider provider, EnumFacing facing) {
+		return provider.hasCapability(CapabilityEnergy.ENERGY, facing) ? provider.getCapability(CapabilityEnergy.ENERGY, facing) : null;
+	}
+
+	@Override
+	protected WireElectric getNetworkWire(ICapabilityProvider provider, EnumFacing facing) {
+		IEnergyStorage storage = getStorage(provider, facing);
+		return storage instanceof WireElectric.EnergyStorage ? ((WireElectric.EnergyStorage) storage).owner : null;
+	}
+
+	@Override
+	protected IEnergyStorage getEndpoint(ICapabilityProvider provider, EnumFacing facing) {
+		return getStorage(provider, facing);
+	}
+
+	@Override
+	protected void onWireAdded(WireElectric wire) {
+		wire.network = this;
+	}
+
+	@Override
+	protected void onEndpointsCompiled() {
+		received = new int[getEndpointCount()];
+	}
+
+	public boolean update() {
+		if (!sending) {
+			updateEndpoints();
+		}
+		return isValid();
+	}
+
+	public int send(int maxReceive, ICapabilityProvider source, boolean simulate) {
+		int count = getEndpointCount();
+		// nested sends (an endpoint feeding back into the same network) must not clobber the outer split
+		int[] mrPer = sending ? new int[count] : received;
+		boolean wasSending = sending;
+		sending = true;
+
+		try {
+			long mrCounted = 0;
+
+			for (int i = 0; i < count; i++) {
+				if (getEndpointProvider(i) == source) {
+					mrPer[i] = 0;
+				} else {
+					mrPer[i] = getEndpoint(i).receiveEnergy(maxReceive, true);
+					mrCounted += mrPer[i];
+				}
+			}
+
+			int sent = 0;
+			if (mrCounted > 0) {
+				for (int i = 0; i < count; i++) {
+					if (mrPer[i] <= 0) {
+						continue;
+					}
+
+					int amount = (int) ((long) maxReceive * mrPer[i] / mrCounted);
+					if (!simulate) {
+						sent += getEndpoint(i).receiveEnergy(amount, false);
+					} else {
+						sent += amount;
+					}
+				}
+			}
+
+			return sent;
+		} finally {
+			sending = wasSending;
+		}
+	}
+}
@@ -19,65 +19,28 @@
 
 package pl.asie.charset.module.power.electric;
 
-import gnu.trove.map.TObjectIntMap;
-import gnu.trove.map.hash.TObjectIntHashMap;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ITickable;
 import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.common.capabilities.Capability;
-import net.minecraftforge.common.capabilities.ICapabilityProvider;
 import net.minecraftforge.energy.CapabilityEnergy;
 import net.minecraftforge.energy.IEnergyStorage;
-import org.apache.commons.lang3.tuple.Pair;
 import pl.asie.charset.api.wires.WireFace;
+import pl.asie.charset.lib.block.TileBase;
 import pl.asie.charset.lib.wires.IWireContainer;
 import pl.asie.charset.lib.wires.Wire;
 import pl.asie.charset.lib.wires.WireProvider;
 import pl.asie.charset.lib.wires.WireUtils;
 
 import javax.annotation.Nonnull;
-import java.util.*;
 
 public class WireElectric extends Wire implements ITickable {
 	public static final int ENERGY_LOSS = /* 1 in */ 0;
 
-	private static class EnergyPacket {
-		private final int maxReceive;
-		private final Set<IEnergyStorage> destinations = Collections.newSetFromMap(new IdentityHashMap<>());
-
-		public EnergyPacket(int maxReceive) {
-			this.maxReceive = maxReceive;
-		}
-
-		private int send(boolean simulate) {
-			long mrCounted = 0;
-
-			TObjectIntMap<IEnergyStorage> mrPer = new TObjectIntHashMap<>();
-			for (IEnergyStorage storage : destinations) {
-				int r = storage.receiveEnergy(maxReceive, true);
-				mrPer.put(storage, r);
-				mrCounted += r;
-			}
-
-			int sent = 0;
-			if (mrCounted > 0) {
-				for (IEnergyStorage storage : destinations) {
-					if (!simulate) {
-						sent += storage.receiveEnergy((int) (maxReceive * mrPer.get(storage) / mrCounted), false);
-					} else {
-						sent += (int) (maxReceive * mrPer.get(storage) / mrCounted);
-					}
-				}
-			}
-
-			return sent;
-		}
-	}
-
-	private static class EnergyStorage implements IEnergyStorage {
-		private final WireElectric owner;
+	static class EnergyStorage implements IEnergyStorage {
+		final WireElectric owner;
 		private final EnumFacing facing;
 
 		public EnergyStorage(WireElectric owner, EnumFacing facing) {
@@ -103,10 +66,7 @@ public class WireElectric extends Wire implements ITickable {
 			}
 
 			TileEntity sourceTile = owner.getContainer().world().getTileEntity(owner.getContainer().pos().offset(facing));
-
-			EnergyPacket packet = new EnergyPacket(nMaxReceive + residueSent);
-			owner.emitPacket(packet, sourceTile);
-			int s = packet.send(simulate);
+			int s = owner.getNetwork().send(nMaxReceive + residueSent, sourceTile, simulate);
 
 			if (!simulate && s > 0) {
 				owner.residue = owner.residue + nResidue - (residueSent * owner.loss());
@@ -144,31 +104,15 @@ public class WireElectric extends Wire implements ITickable {
 	private final EnergyStorage[] STORAGE = new EnergyStorage[6];
 	private int residue; // contains 0...(2*ENERGY_LOSS)-1 units of 1/ENERGY_LOSS Forge power thing
 
-	protected void emitPacket(EnergyPacket packet, ICapabilityProvider source) {
-		Set<ICapabilityProvider> providersTraversed = new HashSet<>();
-		Queue<Object> entities = new LinkedList<>();
-		entities.add(this);
-
-		while (!entities.isEmpty()) {
-			Object o = entities.remove();
-			if (o instanceof WireElectric) {
-				providersTraversed.add((Wire) o);
-
-				for (Pair<ICapabilityProvider, EnumFacing> p : ((WireElectric) o).connectedIterator(true)) {
-					ICapabilityProvider provider = p.getKey();
-					if (provider == source || !providersTraversed.add(provider)) continue;
-
-					EnumFacing facing = p.getValue();
-					IEnergyStorage storage = provider.hasCapability(CapabilityEnergy.ENERGY, facing) ? provider.getCapability(CapabilityEnergy.ENERGY, facing) : null;
-
-					if (storage instanceof EnergyStorage) {
-						entities.add(((EnergyStorage) storage).owner);
-					} else {
-						packet.destinations.add(storage);
-					}
-				}
-			}
+	ElectricNetwork network;
+
+	protected ElectricNetwork getNetwork() {
+		if (network == null || !network.update()) {
+			new ElectricNetwork().build(this);
+			network.update();
 		}
+
+		return network;
 	}
 
 	protected WireElectric(@Nonnull IWireContainer container, @Nonnull WireProvider factory, @Nonnull WireFace location) {
@@ -179,6 +123,28 @@ public class WireElectric extends Wire implements ITickable {
 
 	return  (int)   (int) ENERGY_LOSS;}
 
+	@Override
+	public void onChanged(boolean external) {
+		super.onChanged(external);
+		if (network != null) {
+			network.markDirty(this);
+		}
+	}
+
+	@Override
+	protected void onConnectionsChanged() {
+		if (network != null) {
+			network.invalidate();
+		}
+	}
+
+	@Override
+	public void onInvalidate(TileBase.InvalidationType type) {
+		if (network != null) {
+			network.invalidate();
+		}
+	}
+
 	@Override
 	public String getDisplayName() {
 		return "charset.electricWire";
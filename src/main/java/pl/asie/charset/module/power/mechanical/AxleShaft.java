@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.module.power.mechanical;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.network.NetworkRegistry;
+import pl.asie.charset.api.experimental.mechanical.IMechanicalPowerConsumer;
+import pl.asie.charset.lib.capability.Capabilities;
+import pl.asie.charset.lib.capability.CapabilityHelper;
+import pl.asie.charset.lib.capability.TileCache;
+import pl.asie.charset.lib.scheduler.Scheduler;
+
+/**
+ * A straight run of axles sharing one axis. Power entering one end is
+ * handed directly to the consumer past the other end, and the whole run
+ * is synced to clients with a single packet.
+ */
+public class AxleShaft {
+	protected class Side {
+		protected final EnumFacing facing;
+		protected final BlockPos inputPos, outputPos;
+		protected final TileCache cache;
+		protected double speed, torque;
+
+		public Side(EnumFacing facing, BlockPos inputPos, BlockPos outputPos) {
+			this.facing = facing;
+			this.inputPos = inputPos;
+			this.outputPos = outputPos;
+			this.cache = new TileCache(world, outputPos);
+		}
+
+		protected IMechanicalPowerConsumer getOutput() {
+			return CapabilityHelper.get(
+					Capabilities.MECHANICAL_CONSUMER, cache.getTile(), facing
+			);
+		}
+	}
+
+	private final World world;
+	private final EnumFacing.Axis axis;
+	private final BlockPos min, max;
+	private final Side[] sides = new Side[2];
+	private boolean valid = true;
+	private boolean syncQueued;
+
+	private AxleShaft(World world, EnumFacing.Axis axis, BlockPos min, BlockPos max) {
+		this.world = world;
+		this.axis = axis;
+		this.min = min;
+		this.max = max;
+
+		EnumFacing negative = EnumFacing.getFacingFromAxis(EnumFacing.AxisDirection.NEGATIVE, axis);
+		EnumFacing positive = negative.getOpposite();
+
+		// power entering through a face leaves through the opposite end
+		sides[0] = new Side(negative, min.offset(negative), max.offset(positive));
+		sides[1] = new Side(positive, max.offset(positive), min.offset(negative));
+	}
+
+	private static boolean isAxle(World world, BlockPos pos, EnumFacing.Axis axis) {
+		if (!world.isBlockLoaded(pos)) {
+			return false;
+		}
+
+		TileEntity tile = world.getTileEntity(pos);
+		return tile instanceof TileAxle && !tile.isInvalid() && ((TileAxle) tile).getAxis() == axis;
+	}
+
+	public static AxleShaft build(TileAxle origin) {
+		World world = origin.getWorld();
+		EnumFacing.Axis axis = origin.getAxis();
+		EnumFacing negative = EnumFacing.getFacingFromAxis(EnumFacing.AxisDirection.NEGATIVE, axis);
+		EnumFacing positive = negative.getOpposite();
+
+		BlockPos min = origin.getPos();
+		while (isAxle(world, min.offset(negative), axis)) {
+			min = min.offset(negative);
+		}
+
+		BlockPos max = origin.getPos();
+		while (isAxle(world, max.offset(positive), axis)) {
+			max = max.offset(positive);
+		}
+
+		AxleShaft shaft = new AxleShaft(world, axis, min, max);
+		for (BlockPos pos : BlockPos.getAllInBoxMutable(min, max)) {
+			((TileAxle) world.getTileEntity(pos)).shaft = shaft;
+		}
+
+		// clients may still be showing a previous shaft's state
+		shaft.queueSync();
+		return shaft;
+	}
+
+	public boolean isValid() {
+		return valid;
+	}
+
+	public void invalidate(boolean removed) {
+		if (!valid) {
+			return;
+		}
+
+		valid = false;
+		if (removed) {
+			for (Side side : sides) {
+				if (side.torque != 0.0) {
+					IMechanicalPowerConsumer output = side.getOutput();
+					if (output != null) {
+						output.setForce(0.0, 0.0);
+					}
+				}
+			}
+		}
+	}
+
+	public World getWorld() {
+		return world;
+	}
+
+	public EnumFacing.Axis getAxis() {
+		return axis;
+	}
+
+	public BlockPos getMin() {
+		return min;
+	}
+
+	public int getLength() {
+		return max.getX() - min.getX() + max.getY() - min.getY() + max.getZ() - min.getZ() + 1;
+	}
+
+	public double getSpeed() {
+		return Math.max(sides[0].speed, sides[1].speed);
+	}
+
+	public double getTorque() {
+		return Math.max(sides[0].torque, sides[1].torque);
+	}
+
+	public boolean isAcceptingPower(int i) {
+		if (sides[i ^ 1].torque != 0.0) return false;
+
+		IMechanicalPowerConsumer output = sides[i].getOutput();
+		return output != null && output.isAcceptingPower();
+	}
+
+	public void setForce(int i, double speed, double torque) {
+		Side side = sides[i];
+		IMechanicalPowerConsumer output = side.getOutput();
+
+		if (output != null) {
+			output.setForce(speed, torque);
+		}
+
+		if (side.speed != speed || side.torque != torque) {
+			side.speed = speed;
+			side.torque = torque;
+			if (torque == 0.0) world.neighborChanged(side.inputPos, CharsetPowerMechanical.blockAxle, side.inputPos.offset(side.facing.getOpposite()));
+			queueSync();
+		}
+	}
+
+	public void onNeighborChanged(BlockPos pos) {
+		if (!valid) {
+			return;
+		}
+
+		boolean changed = false;
+		for (Side side : sides) {
+			if (side.outputPos.equals(pos)) {
+				if (isAxle(world, pos, axis)) {
+					// an axle was placed at our end - merge into a longer shaft
+					invalidate(false);
+					return;
+				}
+
+				side.cache.neighborChanged(pos);
+				changed = true;
+			}
+		}
+
+		if (changed) {
+			setForce(0, 0.0, 0.0);
+			setForce(1, 0.0, 0.0);
+		}
+	}
+
+	private void queueSync() {
+		if (!syncQueued) {
+			syncQueued = true;
+			Scheduler.INSTANCE.in(world, 0, () -> {
+				syncQueued = false;
+				if (valid) {
+					BlockPos center = new BlockPos(
+							(min.getX() + max.getX()) >> 1,
+							(min.getY() + max.getY()) >> 1,
+							(min.getZ() + max.getZ()) >> 1
+					);
+
+					CharsetPowerMechanical.packet.sendToAllAround(new PacketAxleShaftUpdate(this), new NetworkRegistry.TargetPoint(
+							world.provider.getDimension(), center.getX(), center.getY(), center.getZ(), 128 + (getLength() >> 1)
+					));
+				}
+			});
+		}
+	}
+}
@@ -50,6 +50,7 @@ import pl.asie.charset.lib.capability.mechanical.DefaultMechanicalPowerProducer;
 import pl.asie.charset.lib.item.ItemBlockBase;
 import pl.asie.charset.lib.loader.CharsetModule;
 import pl.asie.charset.lib.loader.ModuleProfile;
+import pl.asie.charset.lib.network.PacketRegistry;
 import pl.asie.charset.lib.utils.RegistryUtils;
 import pl.asie.charset.lib.utils.RenderUtils;
 import pl.asie.charset.api.experimental.mechanical.IMechanicalPowerConsumer;
@@ -71,6 +72,9 @@ public class CharsetPowerMechanical {
 	public static BlockSocket blockSocket;
 	public static ItemBlock itemAxle, itemCreativeGenerator, itemGearbox, itemSocket;
 
+	@CharsetModule.PacketRegistry
+	public static PacketRegistry packet;
+
 	private static final int[] GEAR_VALUES = new int[] { 1, 2, 3, 5 };
 	private static final String[] GEAR_TYPES = new String[] { "Wood", "Stone", "Iron", "Gold" };
 	private static ItemGear[] GEAR_ITEMS;
@@ -100,6 +104,8 @@ public class CharsetPowerMechanical {
 		RegistryUtils.register(TileGearbox.class, "gearbox");
 		RegistryUtils.register(TileSocket.class, "socket_mechanical");
 
+		packet.registerPacket(0x01, PacketAxleShaftUpdate::new);
+
 		for (int i = 0; i < GEAR_VALUES.length; i++) {
 			OreDictionary.registerOre("gear" + GEAR_TYPES[i], GEAR_ITEMS[i]);
 		}
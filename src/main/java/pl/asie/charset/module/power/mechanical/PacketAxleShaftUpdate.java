@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.module.power.mechanical;
+
+import net.minecraft.network.INetHandler;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import pl.asie.charset.lib.network.Packet;
+
+public class PacketAxleShaftUpdate extends Packet {
+	private AxleShaft shaft;
+	private int dim;
+	private EnumFacing.Axis axis;
+	private BlockPos min;
+	private int length;
+	private float speed, torque;
+
+	public PacketAxleShaftUpdate() {
+
+	}
+
+	public PacketAxleShaftUpdate(AxleShaft shaft) {
+		this.shaft = shaft;
+	}
+
+	@Override
+	public void readData(INetHandler handler, PacketBuffer buf) {
+		dim = buf.readInt();
+		axis = EnumFacing.Axis.values()[buf.readByte()];
+		min = buf.readBlockPos();
+		length = buf.readVarInt();
+		speed = buf.readFloat();
+		torque = buf.readFloat();
+	}
+
+	@Override
+	public void apply(INetHandler handler) {
+		World world = getWorld(handler, dim);
+		if (world == null) {
+			return;
+		}
+
+		EnumFacing positive = EnumFacing.getFacingFromAxis(EnumFacing.AxisDirection.POSITIVE, axis);
+		BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos(min);
+		for (int i = 0; i < length; i++) {
+			if (world.isBlockLoaded(pos)) {
+				TileEntity tile = world.getTileEntity(pos);
+				if (tile instanceof TileAxle) {
+					((TileAxle) tile).rotSpeedClient = speed;
+					((TileAxle) tile).rotTorqueClient = torque;
+				}
+			}
+			pos.move(positive);
+		}
+	}
+
+	@Override
+	public void writeData(PacketBuffer buf) {
+		buf.writeInt(shaft.getWorld().provider.getDimension());
+		buf.writeByte(shaft.getAxis().ordinal());
+		buf.writeBlockPos(shaft.getMin());
+		buf.writeVarInt(shaft.getLength());
+		buf.writeFloat((float) shaft.getSpeed());
+		buf.writeFloat((float) shaft.getTorque());
+	}
+
+	@Override
+	public boolean isAsynchronous() {
+		return false;
+	}
+}
@@ -29,8 +29,6 @@ import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
 import pl.asie.charset.lib.block.TileBase;
 import pl.asie.charset.lib.capability.Capabilities;
-import pl.asie.charset.lib.capability.CapabilityHelper;
-import pl.asie.charset.lib.capability.TileCache;
 import pl.asie.charset.lib.material.ItemMaterial;
 import pl.asie.charset.lib.material.ItemMaterialRegistry;
 import pl.asie.charset.lib.utils.ItemUtils;
@@ -43,54 +41,30 @@ public class TileAxle extends TileBase {
 	protected class AxleSide implements IMechanicalPowerProducer, IMechanicalPowerConsumer {
 		protected final EnumFacing facing;
 		protected final int i;
-		protected final TileCache cache;
-		protected double speedReceived, torqueReceived;
 
 		public AxleSide(int i, EnumFacing facing) {
 			this.i = i;
 			this.facing = facing;
-			this.cache = new TileCache(
-					world, pos.offset(facing.getOpposite())
-			);
 		}
 
 		@Override
 		public boolean isAcceptingPower() {
-			if (powerOutputs[i ^ 1] != null && powerOutputs[i ^ 1].torqueReceived != 0.0) return false;
-
-			IMechanicalPowerConsumer output = CapabilityHelper.get(
-					Capabilities.MECHANICAL_CONSUMER, cache.getTile(), facing
-			);
-
-			return output != null && output.isAcceptingPower();
+			AxleShaft shaft = getShaft();
+			return shaft != null && shaft.isAcceptingPower(i);
 		}
 
 		@Override
 		public void setForce(double speed, double torque) {
-			IMechanicalPowerConsumer output = CapabilityHelper.get(
-					Capabilities.MECHANICAL_CONSUMER, cache.getTile(), facing
-			);
-
-			if (output != null) {
-				output.setForce(speed, torque);
-			}
-
-			if (speedReceived != speed || torqueReceived != torque) {
-				speedReceived = speed;
-				torqueReceived = torque;
-				if (torqueReceived == 0.0) world.neighborChanged(pos.offset(facing), CharsetPowerMechanical.blockAxle, pos);
-				markBlockForUpdate();
+			AxleShaft shaft = getShaft();
+			if (shaft != null) {
+				shaft.setForce(i, speed, torque);
 			}
 		}
-
-		public void onNeighborChanged(BlockPos pos) {
-			cache.neighborChanged(pos);
-			setForce(0.0, 0.0);
-		}
 	}
 
 	public double rotSpeedClient, rotTorqueClient;
 	protected AxleSide[] powerOutputs = new AxleSide[2];
+	protected AxleShaft shaft;
 	protected ItemMaterial material = ItemMaterialRegistry.INSTANCE.getDefaultMaterialByType("plank");
 	protected boolean rendered;
 
@@ -108,11 +82,35 @@ public class TileAxle extends TileBase {
 		getMaterial().writeToNBT(compound, "material");
 	}
 
+	public EnumFacing.Axis getAxis() {
+		return EnumFacing.Axis.values()[getBlockMetadata()];
+	}
+
+	@Nullable
+	public AxleShaft getShaft() {
+		if (world == null || world.isRemote) {
+			return null;
+		}
+
+		if (shaft == null || !shaft.isValid()) {
+			shaft = AxleShaft.build(this);
+		}
+
+		return shaft;
+	}
+
 	public void onNeighborChanged(BlockPos pos) {
-		for (int i = 0; i < 2; i++) {
-			if (powerOutputs[i] != null) {
-				powerOutputs[i].onNeighborChanged(pos);
-			}
+		if (shaft != null) {
+			shaft.onNeighborChanged(pos);
+		}
+	}
+
+	@Override
+	public void invalidate(InvalidationType type) {
+		super.invalidate(type);
+		if (shaft != null) {
+			shaft.invalidate(type == InvalidationType.REMOVAL);
+			shaft = null;
 		}
 	}
 
@@ -150,6 +148,10 @@ public class TileAxle extends TileBase {
 	public void updateContainingBlockInfo() {
 		super.updateContainingBlockInfo();
 		powerOutputs[0] = powerOutputs[1] = null;
+		if (shaft != null) {
+			shaft.invalidate(true);
+			shaft = null;
+		}
 	}
 
 	@Override
@@ -179,13 +181,9 @@ public class TileAxle extends TileBase {
 	public NBTTagCompound writeNBTData(NBTTagCompound compound, boolean isClient) {
 		saveMaterialToNBT(compound);
 		if (isClient) {
-			double ds0 = powerOutputs[0] != null ? powerOutputs[0].speedReceived : 0.0;
-			double dt0 = powerOutputs[0] != null ? powerOutputs[0].torqueReceived : 0.0;
-			double ds1 = powerOutputs[1] != null ? powerOutputs[1].speedReceived : 0.0;
-			double dt1 = powerOutputs[1] != null ? powerOutputs[1].torqueReceived : 0.0;
-
-			compound.setFloat("rs", (float) Math.max(ds0, ds1));
-			compound.setFloat("rt", (float) Math.max(dt0, dt1));
+			boolean hasShaft = shaft != null && shaft.isValid();
+			compound.setFloat("rs", hasShaft ? (float) shaft.getSpeed() : 0.0f);
+			compound.setFloat("rt", hasShaft ? (float) shaft.getTorque() : 0.0f);
 		}
 		return compound;
 	}
@@ -266,7 +266,7 @@ public class TileGearbox extends TileBase implements IMechanicalPowerProducer, I
 		}
 
 		if (oldSpeedIn != speedIn || oldModifier != modifier || oldTorqueIn != torqueIn || oldConsumerCount != consumerCount) {
-			markBlockForUpdate();
+			markBlockForSync();
 		}
 	}
 
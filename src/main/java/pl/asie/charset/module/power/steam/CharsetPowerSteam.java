@@ -131,7 +131,7 @@ public class CharsetPowerSteam {
 		RegistryUtils.register(TileMirror.class, "solar_mirror");
 		RegistryUtils.register(TileWaterBoiler.class, "water_boiler");
 
-		packet.registerPacket(0x01, PacketSpawnParticle.class);
+		packet.registerPacket(0x01, PacketSpawnParticle::new);
 	}
 
 	@Mod.EventHandler
@@ -192,10 +192,8 @@ public class CharsetPowerSteam {
 	@SubscribeEvent
 	public void onStartWatching(ChunkWatchEvent.Watch event) {
 		SteamChunkContainer c = event.getChunkInstance().getCapability(steamContainerCap, null);
-		for (SteamParticle p : c.getParticles()) {
-			if (!p.isInvalid()) {
-				packet.sendTo(new PacketSpawnParticle(p), event.getPlayer());
-			}
+		if (c.getSyncedParticleCount() > 0) {
+			packet.sendTo(c.createSpawnPacket(0, c.getSyncedParticleCount()), event.getPlayer());
 		}
 	}
 
@@ -203,6 +201,9 @@ public class CharsetPowerSteam {
 	public void onChunkLoad(ChunkEvent.Load event) {
 		Objects.requireNonNull(event.getChunk().getWorld().getCapability(steamWorldCap, null))
 				.onChunkLoaded(event.getChunk());
+		if (!event.getWorld().isRemote) {
+			MirrorChunkContainer.onChunkLoaded(event.getWorld(), event.getChunk());
+		}
 	}
 
 	@SubscribeEvent
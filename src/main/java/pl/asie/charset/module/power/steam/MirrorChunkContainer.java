@@ -21,12 +21,14 @@ package pl.asie.charset.module.power.steam;
 
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
-import net.minecraft.tileentity.TileEntity;
+import it.unimi.dsi.fastutil.ints.Int2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import pl.asie.charset.module.power.steam.api.IMirror;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -35,7 +37,9 @@ import java.util.function.Consumer;
 public class MirrorChunkContainer {
 	private final Chunk c;
 	private final TIntObjectMap<Collection<IMirror>> mirrorsByHeight = new TIntObjectHashMap<>();
-	private final TIntObjectMap<IMirror> highestMirror = new TIntObjectHashMap<>();
+	@SuppressWarnings("unchecked")
+	private final Int2ObjectSortedMap<IMirror>[] mirrorsByColumn = new Int2ObjectSortedMap[256];
+	private final MirrorTraceCache traceCache = new MirrorTraceCache();
 
 	public MirrorChunkContainer(Chunk c) {
 		this.c = c;
@@ -55,18 +59,13 @@ public class MirrorChunkContainer {
 		return collection != null ? collection : Collections.emptySet();
 	}
 
-	public IMirror getHighestMirror(BlockPos pos) {
-		return highestMirror.get(getHmPos(pos));
+	public MirrorTraceCache getTraceCache() {
+		return traceCache;
 	}
 
-	private void updateHmPos(IMirror mirror) {
-		if (mirror.isMirrorValid()) {
-			int hmPos = getHmPos(mirror.getMirrorPos());
-			IMirror other = highestMirror.get(hmPos);
-			if (other == null || other.getMirrorPos().getY() < mirror.getMirrorPos().getY()) {
-				highestMirror.put(hmPos, mirror);
-			}
-		}
+	public IMirror getHighestMirror(BlockPos pos) {
+		Int2ObjectSortedMap<IMirror> column = mirrorsByColumn[getHmPos(pos)];
+		return column != null && !column.isEmpty() ? column.get(column.lastIntKey()) : null;
 	}
 
 	public void registerMirror(IMirror mirror) {
@@ -76,37 +75,55 @@ public class MirrorChunkContainer {
 			mirrorsByHeight.put(mirror.getMirrorPos().getY(), collection);
 		}
 		collection.add(mirror);
-		updateHmPos(mirror);
+
+		if (mirror.isMirrorValid()) {
+			int hmPos = getHmPos(mirror.getMirrorPos());
+			Int2ObjectSortedMap<IMirror> column = mirrorsByColumn[hmPos];
+			if (column == null) {
+				column = mirrorsByColumn[hmPos] = new Int2ObjectAVLTreeMap<>();
+			}
+			column.put(mirror.getMirrorPos().getY(), mirror);
+		}
 	}
 
 	public void unregisterMirror(IMirror mirror) {
 		Collection<IMirror> collection = mirrorsByHeight.get(mirror.getMirrorPos().getY());
 		if (collection != null) {
 			collection.remove(mirror);
+			if (collection.isEmpty()) {
+				mirrorsByHeight.remove(mirror.getMirrorPos().getY());
+			}
 		}
 
 		int hmPos = getHmPos(mirror.getMirrorPos());
-		IMirror other = highestMirror.get(hmPos);
-		if (other == mirror || (other != null && !other.isMirrorValid())) {
-			highestMirror.remove(hmPos);
-
-			// TODO: make this faster
-			for (TileEntity tile : c.getTileEntityMap().values()) {
-				if (tile instanceof IMirror) {
-					int hmPos2 = getHmPos(((IMirror) tile).getMirrorPos());
-					if (hmPos2 == hmPos) {
-						updateHmPos((IMirror) tile);
-					}
-				}
+		Int2ObjectSortedMap<IMirror> column = mirrorsByColumn[hmPos];
+		if (column != null) {
+			int y = mirror.getMirrorPos().getY();
+			boolean wasHighest = !column.isEmpty() && column.lastIntKey() == y;
+			if (column.get(y) == mirror) {
+				column.remove(y);
 			}
 
-			other = highestMirror.get(hmPos);
-			if (other != null) {
-				other.requestMirrorTargetRefresh();
+			if (column.isEmpty()) {
+				mirrorsByColumn[hmPos] = null;
+			} else if (wasHighest) {
+				column.get(column.lastIntKey()).requestMirrorTargetRefresh();
 			}
 		}
 	}
 
+	@Nullable
+	public static MirrorTraceCache getTraceCache(World world, BlockPos pos) {
+		Chunk c = world.getChunkFromBlockCoords(pos);
+		if (c != null && c.hasCapability(CharsetPowerSteam.mirrorContainerCap, null)) {
+			MirrorChunkContainer box = c.getCapability(CharsetPowerSteam.mirrorContainerCap, null);
+			assert box != null;
+			return box.traceCache;
+		}
+
+		return null;
+	}
+
 	public static IMirror getHighestMirror(World world, BlockPos pos) {
 		Chunk c = world.getChunkFromBlockCoords(pos);
 		if (c != null && c.hasCapability(CharsetPowerSteam.mirrorContainerCap, null)) {
@@ -152,15 +169,20 @@ public class MirrorChunkContainer {
 		}
 	}
 
-	public static void forEachListening(World world, BlockPos pos, Consumer<IMirror> consumer) {
-		int chunkX = pos.getX() >> 4;
-		int chunkZ = pos.getZ() >> 4;
-		for (int ix = chunkX - 1; ix <= chunkX + 1; ix++) {
-			for (int iz = chunkZ - 1; iz <= chunkZ + 1; iz++) {
-				Chunk c = world.getChunkFromChunkCoords(ix, iz);
-				if (c != null && c.hasCapability(CharsetPowerSteam.mirrorContainerCap, null)) {
+	public static void onChunkLoaded(World world, Chunk chunk) {
+		// mirror rays are shorter than a chunk, so only direct neighbours can cross it
+		for (int ix = chunk.x - 1; ix <= chunk.x + 1; ix++) {
+			for (int iz = chunk.z - 1; iz <= chunk.z + 1; iz++) {
+				Chunk c = world.getChunkProvider().getLoadedChunk(ix, iz);
+				if (c != null && c != chunk && c.hasCapability(CharsetPowerSteam.mirrorContainerCap, null)) {
 					MirrorChunkContainer box = c.getCapability(CharsetPowerSteam.mirrorContainerCap, null);
-					box.getMirrors(pos).forEach(consumer);
+					for (Collection<IMirror> collection : box.mirrorsByHeight.valueCollection()) {
+						for (IMirror mirror : collection) {
+							if (mirror instanceof TileMirror) {
+								((TileMirror) mirror).onRayChunkReloaded(chunk.x, chunk.z);
+							}
+						}
+					}
 				}
 			}
 		}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.module.power.steam;
+
+import it.unimi.dsi.fastutil.ints.Int2ByteMap;
+import it.unimi.dsi.fastutil.ints.Int2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Per-chunk cache shared by all mirrors tracing through a chunk: whether
+ * a given block lets mirror rays through, and which mirrors have a cached
+ * ray passing each block.
+ */
+public class MirrorTraceCache {
+	private static final byte OPAQUE = 1;
+	private static final byte TRANSPARENT = 2;
+
+	public static class Ray {
+		private final long[] positions;
+		private final BlockPos hit;
+		private boolean dirty;
+
+		public Ray(long[] positions, @Nullable BlockPos hit) {
+			this.positions = positions;
+			this.hit = hit;
+		}
+
+		@Nullable
+		public BlockPos getHit() {
+			return hit;
+		}
+
+		public boolean isDirty() {
+			return dirty;
+		}
+
+		public boolean crosses(long pos) {
+			for (long p : positions) {
+				if (p == pos) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public boolean crossesChunk(int chunkX, int chunkZ) {
+			for (long p : positions) {
+				BlockPos pos = BlockPos.fromLong(p);
+				if ((pos.getX() >> 4) == chunkX && (pos.getZ() >> 4) == chunkZ) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public void markDirty() {
+			dirty = true;
+		}
+
+		public long[] getPositions() {
+			return positions;
+		}
+	}
+
+	private final Int2ByteMap transparency = new Int2ByteOpenHashMap();
+	private final Int2ObjectMap<Set<TileMirror>> listeners = new Int2ObjectOpenHashMap<>();
+
+	private static int getKey(BlockPos pos) {
+		return ((pos.getX() & 15) << 12) | ((pos.getZ() & 15) << 8) | (pos.getY() & 255);
+	}
+
+	public boolean isTransparent(World world, BlockPos pos) {
+		int key = getKey(pos);
+		byte value = transparency.get(key);
+		if (value == 0) {
+			IBlockState state = world.getBlockState(pos);
+			value = !(state.getBlock() instanceof BlockMirror) && state.getLightOpacity(world, pos) <= 0 ? TRANSPARENT : OPAQUE;
+			transparency.put(key, value);
+		}
+		return value == TRANSPARENT;
+	}
+
+	public void addListener(BlockPos pos, TileMirror mirror) {
+		int key = getKey(pos);
+		Set<TileMirror> set = listeners.get(key);
+		if (set == null) {
+			set = Collections.newSetFromMap(new IdentityHashMap<>());
+			listeners.put(key, set);
+		}
+		set.add(mirror);
+	}
+
+	public void removeListener(BlockPos pos, TileMirror mirror) {
+		int key = getKey(pos);
+		Set<TileMirror> set = listeners.get(key);
+		if (set != null && set.remove(mirror) && set.isEmpty()) {
+			listeners.remove(key);
+		}
+	}
+
+	public void onBlockChanged(BlockPos pos) {
+		int key = getKey(pos);
+		transparency.remove(key);
+
+		// mirrors still tracing through this block re-register
+		// once their rays have been recalculated
+		Set<TileMirror> set = listeners.remove(key);
+		if (set != null) {
+			long posLong = pos.toLong();
+			for (TileMirror mirror : set) {
+				if (mirror.isMirrorValid()) {
+					mirror.onRayBlockChanged(posLong);
+				}
+			}
+		}
+	}
+}
@@ -21,50 +21,63 @@ package pl.asie.charset.module.power.steam;
 
 import net.minecraft.network.INetHandler;
 import net.minecraft.network.PacketBuffer;
-import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
-import net.minecraftforge.common.capabilities.Capability;
 import pl.asie.charset.lib.network.Packet;
 
 public class PacketSpawnParticle extends Packet {
-	private SteamParticle particle;
-	private int dimId;
-	private double x, y, z;
-	private float xM, yM, zM;
-	private int lifetime, value;
+	private int dimId, chunkX, chunkZ, count;
+	private double[] data;
+	private int[] ints;
 
 	public PacketSpawnParticle() {
 
 	}
 
-	public PacketSpawnParticle(SteamParticle particle) {
-		this.particle = particle;
+	public PacketSpawnParticle(int dimId, int chunkX, int chunkZ, int count, double[] data, int[] ints) {
+		this.dimId = dimId;
+		this.chunkX = chunkX;
+		this.chunkZ = chunkZ;
+		this.count = count;
+		this.data = data;
+		this.ints = ints;
 	}
 
 	@Override
 	public void writeData(PacketBuffer buf) {
-		buf.writeInt(particle.world.provider.getDimension());
-		buf.writeDouble(particle.x);
-		buf.writeDouble(particle.y);
-		buf.writeDouble(particle.z);
-		buf.writeFloat((float) particle.xMotion);
-		buf.writeFloat((float) particle.yMotion);
-		buf.writeFloat((float) particle.zMotion);
-		buf.writeInt(particle.lifetime);
-		buf.writeInt(particle.value);
+		buf.writeInt(dimId);
+		buf.writeInt(chunkX);
+		buf.writeInt(chunkZ);
+		buf.writeVarInt(count);
+		for (int i = 0; i < count; i++) {
+			buf.writeDouble(data[i * 6]);
+			buf.writeDouble(data[i * 6 + 1]);
+			buf.writeDouble(data[i * 6 + 2]);
+			buf.writeFloat((float) data[i * 6 + 3]);
+			buf.writeFloat((float) data[i * 6 + 4]);
+			buf.writeFloat((float) data[i * 6 + 5]);
+			buf.writeInt(ints[i * 2]);
+			buf.writeInt(ints[i * 2 + 1]);
+		}
 	}
 
 	@Override
 	public void readData(INetHandler handler, PacketBuffer buf) {
 		dimId = buf.readInt();
-		x = buf.readDouble();
-		y = buf.readDouble();
-		z = buf.readDouble();
-		xM = buf.readFloat();
-		yM = buf.readFloat();
-		zM = buf.readFloat();
-		lifetime = buf.readInt();
-		value = buf.readInt();
+		chunkX = buf.readInt();
+		chunkZ = buf.readInt();
+		count = buf.readVarInt();
+		data = new double[count * 6];
+		ints = new int[count * 2];
+		for (int i = 0; i < count; i++) {
+			data[i * 6] = buf.readDouble();
+			data[i * 6 + 1] = buf.readDouble();
+			data[i * 6 + 2] = buf.readDouble();
+			data[i * 6 + 3] = buf.readFloat();
+			data[i * 6 + 4] = buf.readFloat();
+			data[i * 6 + 5] = buf.readFloat();
+			ints[i * 2] = buf.readInt();
+			ints[i * 2 + 1] = buf.readInt();
+		}
 	}
 
 	@Override
@@ -73,7 +86,12 @@ public class PacketSpawnParticle extends Packet {
 		if (w != null) {
 			SteamWorldContainer ctr = w.getCapability(CharsetPowerSteam.steamWorldCap, null);
 			assert ctr != null;
-			ctr.spawnParticle(new SteamParticle(w, x, y, z, xM, yM, zM, lifetime, value));
+			SteamChunkContainer cc = ctr.getContainer(chunkX, chunkZ);
+			if (cc != null) {
+				for (int i = 0; i < count; i++) {
+					cc.spawnParticle(data[i * 6], data[i * 6 + 1], data[i * 6 + 2], data[i * 6 + 3], data[i * 6 + 4], data[i * 6 + 5], ints[i * 2], ints[i * 2 + 1]);
+				}
+			}
 		}
 	}
 
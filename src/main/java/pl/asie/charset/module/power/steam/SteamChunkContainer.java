@@ -19,19 +19,38 @@
 
 package pl.asie.charset.module.power.steam;
 
+import net.minecraft.block.Block;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ITickable;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidUtil;
+import net.minecraftforge.fluids.capability.IFluidHandler;
+import pl.asie.charset.lib.utils.RayTraceUtils;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 
+/**
+ * Steam particles within a chunk, stored as parallel primitive arrays.
+ */
 public class SteamChunkContainer implements ITickable {
 	private final Chunk c;
-	private final List<SteamParticle> particleList = new LinkedList<>();
+	private final BlockPos.MutableBlockPos hitPos = new BlockPos.MutableBlockPos();
+	private EnumFacing hitSide;
+	private final RayTraceUtils.Cursor cursor = new RayTraceUtils.Cursor();
+
+	private double[] x = new double[0], y = new double[0], z = new double[0];
+	private double[] xMotion = new double[0], yMotion = new double[0], zMotion = new double[0];
+	private int[] lifetime = new int[0], value = new int[0];
+	private int count;
+	// particles spawned since the last update, kept at the end of the arrays
+	private int unsent;
 
 	public SteamChunkContainer(Chunk c) {
 		this.c = c;
@@ -42,27 +61,213 @@ public class SteamChunkContainer implements ITickable {
 		this(new Chunk(null, 0, 0));
 	}
 
-	public void spawnParticle(SteamParticle particle) {
-		particleList.add(particle);
+	private void ensureCapacity(int size) {
+		if (x.length < size) {
+			int newSize = Math.max(16, Math.max(size, x.length * 2));
+			x = Arrays.copyOf(x, newSize);
+			y = Arrays.copyOf(y, newSize);
+			z = Arrays.copyOf(z, newSize);
+			xMotion = Arrays.copyOf(xMotion, newSize);
+			yMotion = Arrays.copyOf(yMotion, newSize);
+			zMotion = Arrays.copyOf(zMotion, newSize);
+			lifetime = Arrays.copyOf(lifetime, newSize);
+			value = Arrays.copyOf(value, newSize);
+		}
+	}
+
+	public void addParticle(double px, double py, double pz, double xm, double ym, double zm, int plifetime, int pvalue) {
+		ensureCapacity(count + 1);
+		x[count] = px;
+		y[count] = py;
+		z[count] = pz;
+		xMotion[count] = xm;
+		yMotion[count] = ym;
+		zMotion[count] = zm;
+		lifetime[count] = plifetime;
+		value[count] = pvalue;
+		count++;
+	}
+
+	public void spawnParticle(double px, double py, double pz, double xm, double ym, double zm, int plifetime, int pvalue) {
+		addParticle(px, py, pz, xm, ym, zm, plifetime, pvalue);
 		if (!c.getWorld().isRemote) {
-			CharsetPowerSteam.packet.sendToWatching(new PacketSpawnParticle(particle), particle.world, new BlockPos((int) particle.x, (int) particle.y, (int) particle.z), null);
+			unsent++;
 		}
 	}
 
+	public void clearParticles() {
+		count = 0;
+		unsent = 0;
+	}
+
+	public PacketSpawnParticle createSpawnPacket(int from, int to) {
+		int n = to - from;
+		double[] data = new double[n * 6];
+		int[] ints = new int[n * 2];
+		for (int i = 0; i < n; i++) {
+			int j = from + i;
+			data[i * 6] = x[j];
+			data[i * 6 + 1] = y[j];
+			data[i * 6 + 2] = z[j];
+			data[i * 6 + 3] = xMotion[j];
+			data[i * 6 + 4] = yMotion[j];
+			data[i * 6 + 5] = zMotion[j];
+			ints[i * 2] = lifetime[j];
+			ints[i * 2 + 1] = value[j];
+		}
+		return new PacketSpawnParticle(c.getWorld().provider.getDimension(), c.x, c.z, n, data, ints);
+	}
+
 	@Override
 	public void update() {
-		Iterator<SteamParticle> iterator = particleList.iterator();
-		while (iterator.hasNext()) {
-			SteamParticle particle = iterator.next();
-			particle.update();
-			if (particle.isInvalid()) {
-				iterator.remove();
+		if (unsent > 0) {
+			CharsetPowerSteam.packet.sendToWatching(createSpawnPacket(count - unsent, count), c.getWorld(), new BlockPos(c.x << 4, 0, c.z << 4), null);
+			unsent = 0;
+		}
+
+		int j = 0;
+		for (int i = 0; i < count; i++) {
+			if (updateParticle(i)) {
+				if (i != j) {
+					x[j] = x[i];
+					y[j] = y[i];
+					z[j] = z[i];
+					xMotion[j] = xMotion[i];
+					yMotion[j] = yMotion[i];
+					zMotion[j] = zMotion[i];
+					lifetime[j] = lifetime[i];
+					value[j] = value[i];
+				}
+				j++;
+			}
+		}
+		count = j;
+	}
+
+	private boolean updateParticle(int i) {
+		if (lifetime[i] <= 0) {
+			return false;
+		}
+
+		lifetime[i]--;
+
+		double newX = x[i] + xMotion[i];
+		double newY = y[i] + yMotion[i];
+		double newZ = z[i] + zMotion[i];
+
+		if (findCollision(c.getWorld(), x[i], y[i], z[i], newX, newY, newZ)) {
+			IFluidHandler handler = FluidUtil.getFluidHandler(c.getWorld(), hitPos, hitSide);
+			if (handler != null) {
+				handler.fill(new FluidStack(FluidRegistry.getFluid("steam"), value[i]), true);
 			}
+
+			return false;
 		}
+
+		x[i] = newX;
+		y[i] = newY;
+		z[i] = newZ;
+		return true;
+	}
+
+	/**
+	 * Walks the voxels crossed by the segment, skipping the starting one,
+	 * and stores the first one whose collision box it intersects in
+	 * hitPos/hitSide.
+	 */
+	private boolean findCollision(World world, double x0, double y0, double z0, double x1, double y1, double z1) {
+		cursor.reset(x0, y0, z0, x1, y1, z1);
+
+		while (cursor.next()) {
+			BlockPos pos = cursor.getPos();
+			IBlockState state = cursor.getBlockState(world);
+			if (state.getMaterial() == Material.AIR) {
+				continue;
+			}
+
+			AxisAlignedBB box = state.getCollisionBoundingBox(world, pos);
+			if (box != null && box != Block.NULL_AABB && intersects(box, x0 - pos.getX(), y0 - pos.getY(), z0 - pos.getZ(), x1 - x0, y1 - y0, z1 - z0)) {
+				hitPos.setPos(pos);
+				hitSide = cursor.getSide();
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean intersects(AxisAlignedBB box, double ox, double oy, double oz, double dx, double dy, double dz) {
+		double tMin = 0, tMax = 1;
+
+		if (dx != 0) {
+			double t1 = (box.minX - ox) / dx, t2 = (box.maxX - ox) / dx;
+			tMin = Math.max(tMin, Math.min(t1, t2));
+			tMax = Math.min(tMax, Math.max(t1, t2));
+		} else if (ox < box.minX || ox > box.maxX) {
+			return false;
+		}
+
+		if (dy != 0) {
+			double t1 = (box.minY - oy) / dy, t2 = (box.maxY - oy) / dy;
+			tMin = Math.max(tMin, Math.min(t1, t2));
+			tMax = Math.min(tMax, Math.max(t1, t2));
+		} else if (oy < box.minY || oy > box.maxY) {
+			return false;
+		}
+
+		if (dz != 0) {
+			double t1 = (box.minZ - oz) / dz, t2 = (box.maxZ - oz) / dz;
+			tMin = Math.max(tMin, Math.min(t1, t2));
+			tMax = Math.min(tMax, Math.max(t1, t2));
+		} else if (oz < box.minZ || oz > box.maxZ) {
+			return false;
+		}
+
+		return tMin <= tMax;
+	}
+
+	public int getParticleCount() {
+		return count;
+	}
+
+	/**
+	 * @return The number of particles already sent to watching players;
+	 * these are always the first ones in the container.
+	 */
+	public int getSyncedParticleCount() {
+		return count - unsent;
+	}
+
+	public double getX(int i, float partialTicks) {
+		return x[i] + xMotion[i] * partialTicks;
+	}
+
+	public double getY(int i, float partialTicks) {
+		return y[i] + yMotion[i] * partialTicks;
+	}
+
+	public double getZ(int i, float partialTicks) {
+		return z[i] + zMotion[i] * partialTicks;
+	}
+
+	public double getXMotion(int i) {
+		return xMotion[i];
+	}
+
+	public double getYMotion(int i) {
+		return yMotion[i];
+	}
+
+	public double getZMotion(int i) {
+		return zMotion[i];
+	}
+
+	public int getLifetime(int i) {
+		return lifetime[i];
 	}
 
-	public Collection<SteamParticle> getParticles() {
-		return particleList;
+	public int getValue(int i) {
+		return value[i];
 	}
 
 	public Chunk getChunk() {
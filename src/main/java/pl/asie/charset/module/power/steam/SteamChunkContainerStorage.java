@@ -34,8 +34,17 @@ public class SteamChunkContainerStorage implements Capability.IStorage<SteamChun
 	public NBTBase writeNBT(Capability<SteamChunkContainer> capability, SteamChunkContainer instance, EnumFacing side) {
 		NBTTagCompound cpd = new NBTTagCompound();
 		NBTTagList list = new NBTTagList();
-		for (SteamParticle particle : instance.getParticles()) {
-			list.appendTag(particle.serializeNBT());
+		for (int i = 0; i < instance.getParticleCount(); i++) {
+			NBTTagCompound compound = new NBTTagCompound();
+			compound.setDouble("x", instance.getX(i, 0));
+			compound.setDouble("y", instance.getY(i, 0));
+			compound.setDouble("z", instance.getZ(i, 0));
+			compound.setFloat("xm", (float) instance.getXMotion(i));
+			compound.setFloat("ym", (float) instance.getYMotion(i));
+			compound.setFloat("zm", (float) instance.getZMotion(i));
+			compound.setInteger("life", instance.getLifetime(i));
+			compound.setInteger("value", instance.getValue(i));
+			list.appendTag(compound);
 		}
 		cpd.setTag("particles", list);
 		return cpd;
@@ -47,11 +56,14 @@ public class SteamChunkContainerStorage implements Capability.IStorage<SteamChun
 			NBTTagCompound cpd = (NBTTagCompound) nbt;
 			if (cpd.hasKey("particles", Constants.NBT.TAG_LIST)) {
 				NBTTagList list = cpd.getTagList("particles", Constants.NBT.TAG_COMPOUND);
-				instance.getParticles().clear();
+				instance.clearParticles();
 				for (int i = 0; i < list.tagCount(); i++) {
-					SteamParticle p = new SteamParticle(instance.getChunk().getWorld());
-					p.deserializeNBT(list.getCompoundTagAt(i));
-					instance.getParticles().add(p);
+					NBTTagCompound compound = list.getCompoundTagAt(i);
+					instance.addParticle(
+							compound.getDouble("x"), compound.getDouble("y"), compound.getDouble("z"),
+							compound.getFloat("xm"), compound.getFloat("ym"), compound.getFloat("zm"),
+							compound.getInteger("life"), compound.getInteger("value")
+					);
 				}
 			}
 		}
@@ -23,6 +23,7 @@ import gnu.trove.map.TLongObjectMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.chunk.Chunk;
 
 import java.util.Collection;
@@ -39,17 +40,21 @@ public class SteamWorldContainer {
 	}
 
 	public SteamChunkContainer getContainer(BlockPos pos) {
-		return containers.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+		return getContainer(pos.getX() >> 4, pos.getZ() >> 4);
+	}
+
+	public SteamChunkContainer getContainer(int chunkX, int chunkZ) {
+		return containers.get(ChunkPos.asLong(chunkX, chunkZ));
 	}
 
 	public Collection<SteamChunkContainer> getAllContainers() {
 		return containers.valueCollection();
 	}
 
-	public void spawnParticle(SteamParticle particle) {
-		SteamChunkContainer cc = getContainer(new BlockPos(particle.x, particle.y, particle.z));
+	public void spawnParticle(double x, double y, double z, double xMotion, double yMotion, double zMotion, int lifetime, int value) {
+		SteamChunkContainer cc = getContainer(MathHelper.floor(x) >> 4, MathHelper.floor(z) >> 4);
 		if (cc != null) {
-			cc.spawnParticle(particle);
+			cc.spawnParticle(x, y, z, xMotion, yMotion, zMotion, lifetime, value);
 		}
 	}
 }
@@ -41,10 +41,15 @@ public class SteamWorldEventListener implements IWorldEventListener {
 
 	@Override
 	public void notifyBlockUpdate(World worldIn, BlockPos pos, IBlockState oldState, IBlockState newState, int flags) {
+		if (oldState != newState) {
+			MirrorTraceCache cache = MirrorChunkContainer.getTraceCache(worldIn, pos);
+			if (cache != null) {
+				cache.onBlockChanged(pos);
+			}
+		}
+
 		if (oldState.getBlock() instanceof BlockMirror || newState.getBlock() instanceof BlockMirror) {
 			MirrorChunkContainer.forEach(worldIn, pos, IMirror::requestMirrorTargetRefresh);
-		} else if (oldState != newState) {
-			MirrorChunkContainer.forEachListening(worldIn, pos, IMirror::requestMirrorTargetRefresh);
 		}
 	}
 
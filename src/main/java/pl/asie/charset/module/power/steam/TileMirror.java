@@ -19,6 +19,11 @@
 
 package pl.asie.charset.module.power.steam;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minecraft.block.material.Material;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.EntityLivingBase;
@@ -47,6 +52,8 @@ import pl.asie.charset.module.power.steam.api.IMirror;
 import pl.asie.charset.module.power.steam.api.IMirrorTarget;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -56,6 +63,10 @@ public class TileMirror extends TileBase implements IMirror {
 
 	private ItemMaterial material = ItemMaterialRegistry.INSTANCE.getOrCreateMaterial(new ItemStack(Blocks.IRON_BLOCK));
 	private BlockPos targetPos = null;
+	private final MirrorTraceCache.Ray[] rays = new MirrorTraceCache.Ray[SEARCH_DISTANCE * 8];
+	// how many of our cached rays pass each position, so that a listener is only
+	// dropped once no ray needs it anymore
+	private final Long2IntMap listenedPositions = new Long2IntOpenHashMap();
 
 	public ItemMaterial getMaterial() {
 		return material;
@@ -85,6 +96,7 @@ public class TileMirror extends TileBase implements IMirror {
 	@Override
 	public void invalidate(InvalidationType type) {
 		super.invalidate(type);
+		releaseRays();
 		if (type == InvalidationType.REMOVAL) {
 			// chunk /unloading/ removes the container as well
 			MirrorChunkContainer.unregisterMirror(world, this);
@@ -112,59 +124,165 @@ public class TileMirror extends TileBase implements IMirror {
 		return oldTargetPos != targetPos && (oldTargetPos == null || !oldTargetPos.equals(pos));
 	}
 
+	private BlockPos getRayTarget(int rayIdx) {
+		int direction = rayIdx / (SEARCH_DISTANCE * 2);
+		int i = rayIdx % (SEARCH_DISTANCE * 2);
+		switch (direction) {
+			case 0:
+			default:
+				return new BlockPos(
+						pos.getX() - SEARCH_DISTANCE + i,
+						pos.getY(),
+						pos.getZ() - SEARCH_DISTANCE
+				);
+			case 1:
+				return new BlockPos(
+						pos.getX() + SEARCH_DISTANCE,
+						pos.getY(),
+						pos.getZ() - SEARCH_DISTANCE + i
+				);
+			case 2:
+				return new BlockPos(
+						pos.getX() + SEARCH_DISTANCE - i,
+						pos.getY(),
+						pos.getZ() + SEARCH_DISTANCE
+				);
+			case 3:
+				return new BlockPos(
+						pos.getX() - SEARCH_DISTANCE,
+						pos.getY(),
+						pos.getZ() + SEARCH_DISTANCE - i
+				);
+		}
+	}
+
+	private void traceRays(IntList rayIndices) {
+		Vec3d from = new Vec3d(pos).addVector(0.5, 0.5, 0.5);
+		List<Vec3d> targets = new ArrayList<>(rayIndices.size());
+		for (int i = 0; i < rayIndices.size(); i++) {
+			targets.add(new Vec3d(getRayTarget(rayIndices.getInt(i))).addVector(0.5, 0.5, 0.5));
+		}
+
+		// blocks shared by several rays are only checked once
+		RayTraceUtils.Result[] results = RayTraceUtils.castMany(world, from, targets, (checkPos) -> {
+			MirrorTraceCache cache = MirrorChunkContainer.getTraceCache(world, checkPos);
+			if (cache != null) {
+				cache.addListener(checkPos, this);
+				return cache.isTransparent(world, checkPos);
+			} else {
+				IBlockState cstate = world.getBlockState(checkPos);
+				return !(cstate.getBlock() instanceof BlockMirror) && cstate.getLightOpacity(world, checkPos) <= 0;
+			}
+		});
+
+		// walk each ray again (without world lookups) to find the blocks it depends on
+		RayTraceUtils.Cursor cursor = new RayTraceUtils.Cursor();
+		for (int i = 0; i < results.length; i++) {
+			BlockPos hit = results[i].valid() ? results[i].hit.getBlockPos() : null;
+			LongArrayList positions = new LongArrayList();
+			cursor.reset(from, targets.get(i));
+			while (cursor.next()) {
+				long checkPosLong = cursor.getPos().toLong();
+				positions.add(checkPosLong);
+				listenedPositions.put(checkPosLong, listenedPositions.get(checkPosLong) + 1);
+				if (cursor.getPos().equals(hit)) {
+					break;
+				}
+			}
+
+			rays[rayIndices.getInt(i)] = new MirrorTraceCache.Ray(positions.toLongArray(), hit);
+		}
+	}
+
+	private void releaseRay(MirrorTraceCache.Ray ray) {
+		for (long p : ray.getPositions()) {
+			int count = listenedPositions.get(p) - 1;
+			if (count > 0) {
+				listenedPositions.put(p, count);
+			} else {
+				listenedPositions.remove(p);
+				BlockPos checkPos = BlockPos.fromLong(p);
+				if (world.isBlockLoaded(checkPos)) {
+					MirrorTraceCache cache = MirrorChunkContainer.getTraceCache(world, checkPos);
+					if (cache != null) {
+						cache.removeListener(checkPos, this);
+					}
+				}
+			}
+		}
+	}
+
+	private void releaseRays() {
+		if (world != null) {
+			for (int i = 0; i < rays.length; i++) {
+				if (rays[i] != null) {
+					releaseRay(rays[i]);
+					rays[i] = null;
+				}
+			}
+		}
+		listenedPositions.clear();
+	}
+
+	void onRayBlockChanged(long changedPos) {
+		boolean changed = false;
+		for (MirrorTraceCache.Ray ray : rays) {
+			if (ray != null && !ray.isDirty() && ray.crosses(changedPos)) {
+				ray.markDirty();
+				changed = true;
+			}
+		}
+
+		if (changed) {
+			requestMirrorTargetRefresh();
+		}
+	}
+
+	// a reloaded chunk comes with an empty trace cache, so rays through it
+	// have to be traced again to listen for its block changes
+	void onRayChunkReloaded(int chunkX, int chunkZ) {
+		boolean changed = false;
+		for (MirrorTraceCache.Ray ray : rays) {
+			if (ray != null && !ray.isDirty() && ray.crossesChunk(chunkX, chunkZ)) {
+				ray.markDirty();
+				changed = true;
+			}
+		}
+
+		if (changed) {
+			requestMirrorTargetRefresh();
+		}
+	}
+
 	protected void findTarget() {
 		BlockPos oldTargetPos = targetPos;
 		double targetDistance = Double.MAX_VALUE;
 		TileEntity target = null;
 
 		if (!isInvalid() && canSearchForTarget()) {
-			for (int direction = 0; direction < 4; direction++) {
-				for (int i = 0; i < SEARCH_DISTANCE * 2; i++) {
-					BlockPos targetPos;
-					switch (direction) {
-						case 0:
-						default:
-							targetPos = new BlockPos(
-									pos.getX() - SEARCH_DISTANCE + i,
-									pos.getY(),
-									pos.getZ() - SEARCH_DISTANCE
-							);
-							break;
-						case 1:
-							targetPos = new BlockPos(
-									pos.getX() + SEARCH_DISTANCE,
-									pos.getY(),
-									pos.getZ() - SEARCH_DISTANCE + i
-							);
-							break;
-						case 2:
-							targetPos = new BlockPos(
-									pos.getX() + SEARCH_DISTANCE - i,
-									pos.getY(),
-									pos.getZ() + SEARCH_DISTANCE
-							);
-							break;
-						case 3:
-							targetPos = new BlockPos(
-									pos.getX() - SEARCH_DISTANCE,
-									pos.getY(),
-									pos.getZ() + SEARCH_DISTANCE - i
-							);
-							break;
+			IntList dirtyRays = new IntArrayList();
+			for (int rayIdx = 0; rayIdx < rays.length; rayIdx++) {
+				MirrorTraceCache.Ray ray = rays[rayIdx];
+				if (ray == null || ray.isDirty()) {
+					if (ray != null) {
+						releaseRay(ray);
 					}
+					dirtyRays.add(rayIdx);
+				}
+			}
+
+			if (!dirtyRays.isEmpty()) {
+				traceRays(dirtyRays);
+			}
 
-					RayTraceUtils.Result resultTmp = RayTraceUtils.getCollision(world, new Vec3d(pos).addVector(0.5, 0.5, 0.5), new Vec3d(targetPos).addVector(0.5, 0.5, 0.5), (checkPos) -> {
-						IBlockState cstate = world.getBlockState(checkPos);
-						return !(cstate.getBlock() instanceof BlockMirror) && cstate.getLightOpacity(world, checkPos) <= 0;
-					});
-
-					if (resultTmp.valid()) {
-						double distTmp = pos.distanceSq(resultTmp.hit.getBlockPos());
-						if (distTmp <= MAX_RADIUS_SQ && distTmp < targetDistance) {
-							TileEntity tile = world.getTileEntity(resultTmp.hit.getBlockPos());
-							if (tile != null && tile.hasCapability(CharsetPowerSteam.MIRROR_TARGET, null) && target != tile) {
-								target = tile;
-							}
+			for (MirrorTraceCache.Ray ray : rays) {
+				BlockPos hitPos = ray.getHit();
+				if (hitPos != null) {
+					double distTmp = pos.distanceSq(hitPos);
+					if (distTmp <= MAX_RADIUS_SQ && distTmp < targetDistance) {
+						TileEntity tile = world.getTileEntity(hitPos);
+						if (tile != null && tile.hasCapability(CharsetPowerSteam.MIRROR_TARGET, null) && target != tile) {
+							target = tile;
 						}
 					}
 				}
@@ -192,17 +192,14 @@ public class TileWaterBoiler extends TileMirrorTargetBase implements ITickable {
 		}
 
 		world.getCapability(CharsetPowerSteam.steamWorldCap, null).spawnParticle(
-				new SteamParticle(
-						world,
-						ppos.getX() + 0.25f + (world.rand.nextFloat() * 0.5f),
-						ppos.getY() - 0.01f,
-						ppos.getZ() + 0.25f + (world.rand.nextFloat() * 0.5f),
-						(world.rand.nextFloat() * 0.02f) - 0.01f,
-						0.03f * Math.sqrt(toBoil),
-						(world.rand.nextFloat() * 0.02f) - 0.01f,
-						100,
-						toBoil
-				)
+				ppos.getX() + 0.25f + (world.rand.nextFloat() * 0.5f),
+				ppos.getY() - 0.01f,
+				ppos.getZ() + 0.25f + (world.rand.nextFloat() * 0.5f),
+				(world.rand.nextFloat() * 0.02f) - 0.01f,
+				0.03f * Math.sqrt(toBoil),
+				(world.rand.nextFloat() * 0.02f) - 0.01f,
+				100,
+				toBoil
 		);
 	}
 
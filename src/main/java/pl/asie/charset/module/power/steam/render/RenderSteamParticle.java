@@ -44,7 +44,6 @@ import pl.asie.charset.lib.utils.MathUtils;
 import pl.asie.charset.lib.utils.Quaternion;
 import pl.asie.charset.module.power.steam.CharsetPowerSteam;
 import pl.asie.charset.module.power.steam.SteamChunkContainer;
-import pl.asie.charset.module.power.steam.SteamParticle;
 import pl.asie.charset.module.power.steam.api.IMirror;
 
 import java.util.Optional;
@@ -90,23 +89,24 @@ public class RenderSteamParticle {
 		worldrenderer.setTranslation(-cameraPos.x, -cameraPos.y, -cameraPos.z);
 		worldrenderer.begin(GL11.GL_QUADS, DefaultVertexFormats.PARTICLE_POSITION_TEX_COLOR_LMAP);
 
-		for (SteamChunkContainer chunkContainer : world.getCapability(CharsetPowerSteam.steamWorldCap, null).getAllContainers()) {
-			for (SteamParticle particle : chunkContainer.getParticles()) {
-				if (particle.isInvalid()) {
-					continue;
-				}
+		float partialTicks = Minecraft.getMinecraft().getRenderPartialTicks();
+		BlockPos.MutableBlockPos lightPos = new BlockPos.MutableBlockPos();
 
-				float size = 0.1f * (float) Math.log10(particle.getValue());
+		for (SteamChunkContainer chunkContainer : world.getCapability(CharsetPowerSteam.steamWorldCap, null).getAllContainers()) {
+			for (int p = 0; p < chunkContainer.getParticleCount(); p++) {
+				float size = 0.1f * (float) Math.log10(chunkContainer.getValue(p));
 				float alpha = 0.25f;
 
-				Vec3d pos = particle.getPosition(Minecraft.getMinecraft().getRenderPartialTicks());
-				AxisAlignedBB box = new AxisAlignedBB(pos.addVector(-size, -size, -size), pos.addVector(size, size, size));
+				double px = chunkContainer.getX(p, partialTicks);
+				double py = chunkContainer.getY(p, partialTicks);
+				double pz = chunkContainer.getZ(p, partialTicks);
+				AxisAlignedBB box = new AxisAlignedBB(px - size, py - size, pz - size, px + size, py + size, pz + size);
 
 				if (!camera.isBoundingBoxInFrustum(box)) {
 					continue;
 				}
 
-				int l = world.getCombinedLight(new BlockPos(pos), 0);
+				int l = world.getCombinedLight(lightPos.setPos(px, py, pz), 0);
 				int j = (l >> 16) & 0xFFFF;
 				int k = l & 0xFFFF;
 				Vec3d[] positions = new Vec3d[] {
@@ -118,9 +118,9 @@ public class RenderSteamParticle {
 
 				for (int i = 0; i < 4; i++) {
 					worldrenderer.pos(
-							positions[i].x + pos.x,
-							positions[i].y + pos.y,
-							positions[i].z + pos.z
+							positions[i].x + px,
+							positions[i].y + py,
+							positions[i].z + pz
 					).tex(spritePositions[i*2], spritePositions[i*2+1]).color(1, 1, 1, alpha)
 							.lightmap(j, k).endVertex();
 				}
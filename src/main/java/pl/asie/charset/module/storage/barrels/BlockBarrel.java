@@ -128,6 +128,14 @@ public class BlockBarrel extends BlockBase implements ITileEntityProvider {
         }
     }
 
+    @Override
+    public void onNeighborChange(IBlockAccess world, BlockPos pos, BlockPos neighbor) {
+        TileEntity tile = world.getTileEntity(pos);
+        if (tile instanceof TileEntityDayBarrel) {
+            ((TileEntityDayBarrel) tile).neighborTileChanged();
+        }
+    }
+
     @Override
     public float getBlockHardness(IBlockState state, World world, BlockPos pos) {
         TileEntity tile = world.getTileEntity(pos);
@@ -53,7 +53,6 @@ import pl.asie.charset.lib.config.ConfigUtils;
 import pl.asie.charset.lib.loader.CharsetModule;
 import pl.asie.charset.lib.loader.ModuleProfile;
 import pl.asie.charset.lib.material.ItemMaterialRegistry;
-import pl.asie.charset.lib.network.PacketRegistry;
 import pl.asie.charset.lib.render.ArrowHighlightHandler;
 import pl.asie.charset.lib.utils.RegistryUtils;
 import pl.asie.charset.lib.utils.RenderUtils;
@@ -76,9 +75,6 @@ public class CharsetStorageBarrels {
 	@CharsetModule.Instance
 	public static CharsetStorageBarrels instance;
 
-	@CharsetModule.PacketRegistry
-	public static PacketRegistry packet;
-
 	@CharsetModule.Configuration
 	public static Configuration config;
 
@@ -147,7 +143,6 @@ public class CharsetStorageBarrels {
 		GameRegistry.registerTileEntity(TileEntityDayBarrel.class, "charset:barrel");
 		RegistryUtils.register(EntityMinecartDayBarrel.class, "barrelCart", 80, 3, true);
 
-		packet.registerPacket(0x01, PacketBarrelCountUpdate.class);
 		FMLInterModComms.sendMessage("charset", "addCarry", barrelBlock.getRegistryName());
 	}
 
@@ -68,7 +68,7 @@ import pl.asie.charset.module.tweak.dynlights.CharsetTweakDynamicLights;
 import javax.annotation.Nullable;
 import java.util.*;
 
-public class TileEntityDayBarrel extends TileBase implements IBarrel, ICacheable, ITickable, IAxisRotatable, ITileWrenchRotatable {
+public class TileEntityDayBarrel extends TileBase implements IBarrel, ICacheable, IAxisRotatable, ITileWrenchRotatable {
     public ItemStack item = ItemStack.EMPTY;
     public ItemMaterial woodLog, woodSlab;
     public Orientation orientation = Orientation.FACE_UP_POINT_NORTH;
@@ -195,8 +195,11 @@ public class TileEntityDayBarrel extends TileBase implements IBarrel, ICacheable
             { BarrelUpgrade.INFINITE, BarrelUpgrade.HOPPING }
     };
 
-    private boolean updateRedstoneLevels;
+    private static final int MAX_HOP_DELAY = 200;
+
     private int redstoneLevel;
+    private int hopGeneration, hopDelay;
+    private long hopTime = Long.MAX_VALUE;
     private int lastMentionedCount = -1;
 
     public TileEntityDayBarrel() {
@@ -272,6 +275,7 @@ public class TileEntityDayBarrel extends TileBase implements IBarrel, ICacheable
     @Override
     public void invalidate(InvalidationType type) {
         super.invalidate(type);
+        cancelHop();
         woodLogAccess = null;
         helperTop = null;
         helperBottom = null;
@@ -280,7 +284,6 @@ public class TileEntityDayBarrel extends TileBase implements IBarrel, ICacheable
     @Override
     public void validate() {
         super.validate();
-        updateRedstoneLevels = true;
         woodLogAccess = new ProxiedBlockAccess(getWorld()) {
             @Nullable
             @Override
@@ -313,6 +316,15 @@ public class TileEntityDayBarrel extends TileBase implements IBarrel, ICacheable
             Scheduler.INSTANCE.in(getWorld(), 1, this::updateComparators);
     }
 
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (!world.isRemote && !isEntity) {
+            updateRedstoneLevel();
+            needLogic();
+        }
+    }
+
     public void updateRedstoneLevel() {
         redstoneLevel = 0;
         for (EnumFacing d : EnumFacing.VALUES) {
@@ -344,43 +356,29 @@ public class TileEntityDayBarrel extends TileBase implements IBarrel, ICacheable
         return compound;
     }
 
-    private boolean scheduledTick = true;
-
     public int getLogicSpeed() {
         return 8;
     }
 
-    @Override
-    public void update() {
-        if (getWorld().isRemote) {
-            return;
-        }
-
-        if (updateRedstoneLevels) {
-            updateRedstoneLevel();
-            updateRedstoneLevels = false;
-        }
-
-        if (redstoneLevel > 0 || !scheduledTick || (getWorld().getTotalWorldTime() % getLogicSpeed()) != 0) {
-            return;
-        }
-
-        tick();
-    }
-
     private void onItemChange(boolean typeChanged) {
         sync();
         if (!isEntity)
             updateComparators();
         markChunkDirty();
+        // wake a backed-off hopping barrel when hoppers or pipes change its contents
+        if (upgrades.contains(BarrelUpgrade.HOPPING))
+            needLogic();
     }
 
-    void tick() {
+    /**
+     * @return Whether any items were moved.
+     */
+    boolean tick() {
         if (!upgrades.contains(BarrelUpgrade.HOPPING) || orientation == null) {
-            return;
+            return false;
         }
         if (notice_target == this && world.getStrongPower(pos) > 0) {
-            return;
+            return false;
         }
 
         boolean itemChanged = false;
@@ -427,25 +425,70 @@ public class TileEntityDayBarrel extends TileBase implements IBarrel, ICacheable
         if (itemChanged) {
             markDirty();
         }
+        return itemChanged;
     }
 
+    /**
+     * Hopping is driven by the scheduler rather than by ticking: it runs
+     * soon after the barrel or its neighbours change, and retries with
+     * an increasing delay while nothing can be moved.
+     */
     private void needLogic() {
-        scheduledTick = true;
+        hopDelay = 0;
+        scheduleHop(getLogicSpeed());
+    }
+
+    private void scheduleHop(int delay) {
+        if (isEntity || world == null || world.isRemote || isInvalid() || !upgrades.contains(BarrelUpgrade.HOPPING)) {
+            return;
+        }
+
+        long time = world.getTotalWorldTime() + delay;
+        if (hopTime <= time) {
+            return;
+        }
+
+        hopTime = time;
+        int generation = ++hopGeneration;
+        Scheduler.INSTANCE.at(world, time, () -> runHop(generation));
+    }
+
+    private void cancelHop() {
+        hopGeneration++;
+        hopTime = Long.MAX_VALUE;
+    }
+
+    private void runHop(int generation) {
+        if (generation != hopGeneration) {
+            return;
+        }
+
+        hopTime = Long.MAX_VALUE;
+        if (isInvalid() || redstoneLevel > 0) {
+            return;
+        }
+
+        if (!tick()) {
+            hopDelay = hopDelay == 0 ? getLogicSpeed() * 2 : Math.min(hopDelay * 2, MAX_HOP_DELAY);
+            scheduleHop(hopDelay);
+        }
     }
 
     public void neighborChanged(BlockPos pos, BlockPos fromPos) {
-        if (!upgrades.contains(BarrelUpgrade.HOPPING)) {
+        if (upgrades.contains(BarrelUpgrade.HOPPING)) {
             updateRedstoneLevel();
-            // X/Z can be equal, as we only care about top/bottom neighbors for this
-            if (pos.getX() == fromPos.getX() && pos.getZ() == fromPos.getZ()) {
-                needLogic();
+            if (helperTop != null) {
+                helperTop.neighborChanged(fromPos);
+                helperBottom.neighborChanged(fromPos);
             }
-        } else if (helperTop != null) {
-            helperTop.neighborChanged(fromPos);
-            helperBottom.neighborChanged(fromPos);
+            needLogic();
         }
     }
 
+    public void neighborTileChanged() {
+        needLogic();
+    }
+
     @Override
     public int getItemCount() {
         if (item.isEmpty()) {
@@ -648,12 +691,15 @@ public class TileEntityDayBarrel extends TileBase implements IBarrel, ICacheable
         return !getSilkedItem(is).isEmpty();
     }
 
-    void updateCountClients() {
-        CharsetStorageBarrels.packet.sendToWatching(new PacketBarrelCountUpdate(this), this);
+    @Override
+    public NBTTagCompound writeNBTDelta(NBTTagCompound compound) {
+        compound.setInteger("count", item.getCount());
+        return compound;
     }
 
-    protected void onCountUpdate(PacketBarrelCountUpdate packet) {
-        item.setCount(packet.count);
+    @Override
+    public void readNBTDelta(NBTTagCompound compound) {
+        item.setCount(compound.getInteger("count"));
     }
 
     //Inventory code
@@ -672,9 +718,9 @@ public class TileEntityDayBarrel extends TileBase implements IBarrel, ICacheable
         if (c != lastMentionedCount) {
             if (lastMentionedCount*c <= 0) {
                 //One of them was 0
-                markBlockForUpdate();
+                markBlockForSync();
             } else {
-                updateCountClients();
+                markBlockForDeltaSync();
             }
             lastMentionedCount = c;
         }
@@ -777,7 +823,7 @@ public class TileEntityDayBarrel extends TileBase implements IBarrel, ICacheable
                 }
 
                 if (inserted > 0 && hadNoItem) {
-                    markBlockForUpdate();
+                    markBlockForSync();
                 }
 
                 return inserted > 0 ? EnumActionResult.SUCCESS : EnumActionResult.FAIL;
@@ -850,7 +896,7 @@ public class TileEntityDayBarrel extends TileBase implements IBarrel, ICacheable
             if (take > 0) {
                 held.shrink(take);
                 if (hadNoItem) {
-                    markBlockForUpdate();
+                    markBlockForSync();
                 }
             } else {
                 info(player);
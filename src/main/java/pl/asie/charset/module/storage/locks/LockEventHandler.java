@@ -131,15 +131,12 @@ public class LockEventHandler {
     @SubscribeEvent
     public void onAttachCapabilities(AttachCapabilitiesEvent<TileEntity> event) {
         TileEntity tile = event.getObject();
-        ResourceLocation location = TileEntity.getKey(tile.getClass());
-        if (location == null) // f.e. IC2 energy net internals
-            return;
-
-        ThreeState state = CharsetIMC.INSTANCE.allows("lock", location);
+        ThreeState state = CharsetIMC.INSTANCE.allows("lock", tile.getClass());
         boolean hasCap = state == ThreeState.YES;
 
         if (state == ThreeState.MAYBE) {
-            if (tile instanceof TileEntityLockable) {
+            // unregistered tiles (f.e. IC2 energy net internals) are skipped
+            if (tile instanceof TileEntityLockable && CharsetIMC.INSTANCE.isRegistered(tile.getClass())) {
                 hasCap = true;
             }
         }
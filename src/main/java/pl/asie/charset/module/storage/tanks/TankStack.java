@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.module.storage.tanks;
+
+import net.minecraftforge.fluids.FluidStack;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Shared state of a connected column of tanks. Built lazily from the
+ * bottom tank and invalidated whenever the structure changes.
+ */
+class TankStack {
+    private final List<TileTank> tanks = new ArrayList<>();
+    private final int capacity;
+    private int amount;
+    private boolean valid = true;
+
+    TankStack(TileTank bottom) {
+        Iterator<TileTank> i = new TileTank.TankIterator(bottom);
+        while (i.hasNext()) {
+            TileTank tank = i.next();
+            tanks.add(tank);
+            tank.stack = this;
+            if (tank.fluidStack != null) {
+                amount += tank.fluidStack.amount;
+            }
+        }
+        capacity = tanks.size() * TileTank.CAPACITY;
+    }
+
+    boolean isValid() {
+        return valid;
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+
+    TileTank getBottom() {
+        return tanks.get(0);
+    }
+
+    List<TileTank> getTanks() {
+        return tanks;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    int getAmount() {
+        return amount;
+    }
+
+    @Nullable
+    FluidStack getContents() {
+        FluidStack type = getBottom().fluidStack;
+        return type != null && amount > 0 ? new FluidStack(type, amount) : null;
+    }
+
+    /**
+     * @return The amount of fluid left over.
+     */
+    int fill(FluidStack resource, int toFill, boolean doFill) {
+        // tanks fill bottom-up, so everything below this one is full
+        for (int i = Math.min(amount / TileTank.CAPACITY, tanks.size() - 1); i < tanks.size() && toFill > 0; i++) {
+            TileTank tank = tanks.get(i);
+            int canFill = Math.min(toFill, TileTank.CAPACITY - (tank.fluidStack == null ? 0 : tank.fluidStack.amount));
+            if (canFill <= 0) {
+                continue;
+            }
+
+            if (doFill) {
+                if (tank.fluidStack == null) {
+                    tank.fluidStack = new FluidStack(resource, canFill);
+                } else {
+                    tank.fluidStack.amount += canFill;
+                }
+                amount += canFill;
+                tank.onStackModified();
+            }
+            toFill -= canFill;
+        }
+        return toFill;
+    }
+
+    /**
+     * @return The amount of fluid which could not be drained.
+     */
+    int drain(int toDrain, boolean doDrain) {
+        for (int i = Math.min((amount - 1) / TileTank.CAPACITY, tanks.size() - 1); i >= 0 && toDrain > 0; i--) {
+            TileTank tank = tanks.get(i);
+            if (tank.fluidStack == null) {
+                continue;
+            }
+
+            int canDrain = Math.min(toDrain, tank.fluidStack.amount);
+            if (doDrain) {
+                tank.fluidStack.amount -= canDrain;
+                amount -= canDrain;
+                tank.onStackModified();
+            }
+            toDrain -= canDrain;
+        }
+        return toDrain;
+    }
+}
@@ -52,6 +52,7 @@ import pl.asie.charset.lib.CharsetLib;
 import pl.asie.charset.lib.block.TileBase;
 import pl.asie.charset.lib.capability.Capabilities;
 import pl.asie.charset.lib.misc.DoubleClickHandler;
+import pl.asie.charset.lib.scheduler.ScheduledEvent;
 import pl.asie.charset.lib.scheduler.Scheduler;
 import pl.asie.charset.lib.utils.FluidUtils;
 import pl.asie.charset.lib.utils.ItemUtils;
@@ -117,6 +118,8 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
     protected TileTank bottomTank, aboveTank;
     protected static final int CAPACITY = 16000;
     protected FluidStack fluidStack;
+    TankStack stack;
+    private ScheduledEvent comparatorUpdate;
     private int variant;
 
     public int getVariant() {
@@ -129,6 +132,7 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
             TileEntity tDown = world.getTileEntity(pos.down());
             if (!(checkPlacementConflict(this, tUp, variant) || checkPlacementConflict(this, tDown, variant) || checkPlacementConflict(tUp, tDown, variant))) {
                 this.variant = variant;
+                invalidateStack();
                 markBlockForUpdate();
                 world.notifyNeighborsRespectDebug(pos, CharsetStorageTanks.tankBlock, false);
                 return true;
@@ -151,7 +155,26 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
         world.notifyNeighborsRespectDebug(pos, CharsetStorageTanks.tankBlock, false);
     }
 
+    private void invalidateStack() {
+        if (stack != null) {
+            stack.invalidate();
+            stack = null;
+        }
+    }
+
+    TankStack getStack() {
+        if (stack == null || !stack.isValid()) {
+            TileTank bottom = getBottomTank();
+            if (bottom.stack == null || !bottom.stack.isValid()) {
+                new TankStack(bottom);
+            }
+            stack = bottom.stack;
+        }
+        return stack;
+    }
+
     protected void onTankStructureChanged() {
+        invalidateStack();
         updateAboveTank();
         BlockPos tankPos = getPos();
         TileEntity tankEntity = this;
@@ -237,18 +260,35 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
                 fluidStack = null;
         }
 
-        Iterator<TileTank> tankIterator = getAllTanks();
-        while (tankIterator.hasNext()) {
-            tankIterator.next().updateComparators();
-        }
-        // TODO: Maybe send less often than every *change*?
-        markBlockForUpdate();
+        queueComparatorUpdate();
+        markBlockForSync();
         markChunkDirty();
     }
 
+    private void queueComparatorUpdate() {
+        if (world == null || world.isRemote) {
+            return;
+        }
+
+        TileTank bottom = getBottomTank();
+        if (bottom.comparatorUpdate == null || bottom.comparatorUpdate.hasExecuted()) {
+            bottom.comparatorUpdate = Scheduler.INSTANCE.in(world, 0, bottom::updateAllComparators);
+        }
+    }
+
+    private void updateAllComparators() {
+        if (!isInvalid()) {
+            Iterator<TileTank> tankIterator = getAllTanks();
+            while (tankIterator.hasNext()) {
+                tankIterator.next().updateComparators();
+            }
+        }
+    }
+
     @Override
     public void invalidate(InvalidationType type) {
         super.invalidate(type);
+        invalidateStack();
         if (world != null && pos != null) {
             world.notifyNeighborsRespectDebug(getPos(), CharsetStorageTanks.tankBlock, false);
         }
@@ -263,6 +303,7 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
     @Override
     public void readNBTData(NBTTagCompound compound, boolean isClient) {
         variant = compound.getByte("variant");
+        invalidateStack();
 
         if (compound.hasKey("fluid", Constants.NBT.TAG_COMPOUND)) {
             fluidStack = FluidStack.loadFluidStackFromNBT(compound.getCompoundTag("fluid"));
@@ -289,12 +330,19 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
     protected void updateAboveTank() {
         TileEntity nTank = world.getTileEntity(pos.up());
         if (nTank instanceof TileTank && connects((TileTank) nTank) && ((TileTank) nTank).connects(this)) {
+            if (aboveTank != nTank) {
+                invalidateStack();
+            }
             aboveTank = (TileTank) nTank;
             if (isCreative() && fluidStack != null && aboveTank.fluidStack == null) {
+                invalidateStack();
                 aboveTank.fluidStack = fluidStack.copy();
                 aboveTank.updateAboveTank();
             }
         } else {
+            if (aboveTank != null) {
+                invalidateStack();
+            }
             aboveTank = null;
         }
     }
@@ -312,6 +360,9 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
                 break;
             }
         }
+        if (bottomTank != tank) {
+            invalidateStack();
+        }
         bottomTank = tank;
 
         // Shift the liquid down in case there's new tanks below
@@ -333,7 +384,10 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
 
             tank.onStackModified();
         }
-        if (fluidStackChanged) onStackModified();
+        if (fluidStackChanged) {
+            invalidateStack();
+            onStackModified();
+        }
     }
 
     public Iterator<TileTank> getAllTanks() {
@@ -345,6 +399,7 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
             return this;
 
         if (bottomTank == null || bottomTank.isInvalid()) {
+            invalidateStack();
             findBottomTank();
         }
         return bottomTank;
@@ -377,21 +432,9 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
     @Override
     public int fill(FluidStack resource, boolean doFill) {
         if (canFillFluidType(resource)) {
-            int toFill = isCreative() ? getCapacity() : resource.amount;
-            Iterator<TileTank> i = getAllTanks();
-            while (i.hasNext() && toFill > 0) {
-                TileTank tank = i.next();
-                int canFill = Math.min(toFill, CAPACITY - (tank.fluidStack == null ? 0 : tank.fluidStack.amount));
-                if (doFill) {
-                    if (tank.fluidStack == null) {
-                        tank.fluidStack = new FluidStack(resource, canFill);
-                    } else {
-                        tank.fluidStack.amount += canFill;
-                    }
-                    tank.onStackModified();
-                }
-                toFill -= canFill;
-            }
+            TankStack stack = getStack();
+            int toFill = isCreative() ? stack.getCapacity() : resource.amount;
+            toFill = stack.fill(resource, toFill, doFill);
             return resource.amount - toFill;
         } else {
             return 0;
@@ -424,31 +467,13 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
     @Nullable
     @Override
     public FluidStack drain(int maxDrain, boolean doDrain, boolean isAutomated) {
-        int toDrain = (!isAutomated && isCreative() && fluidStack != null) ? getContents().amount : maxDrain;
+        int toDrain = (!isAutomated && isCreative() && fluidStack != null) ? getStack().getAmount() : maxDrain;
         FluidStack typeSrc = getBottomTank().fluidStack;
         if (typeSrc == null) {
             return null;
         }
 
-        Stack<TileTank> drainTanks = new Stack<TileTank>();
-        Iterator<TileTank> i = getAllTanks();
-        while (i.hasNext()) {
-            TileTank tank = i.next();
-            if (tank.fluidStack == null)
-                break;
-            drainTanks.add(tank);
-        }
-
-        TileTank tank;
-        while (!drainTanks.empty() && toDrain > 0) {
-            tank = drainTanks.pop();
-            int canDrain = Math.min(toDrain, tank.fluidStack.amount);
-            if (doDrain && (!isAutomated || !isCreative())) {
-                tank.fluidStack.amount -= canDrain;
-                tank.onStackModified();
-            }
-            toDrain -= canDrain;
-        }
+        toDrain = getStack().drain(toDrain, doDrain && (!isAutomated || !isCreative()));
         return new FluidStack(typeSrc, maxDrain - toDrain);
     }
 
@@ -458,20 +483,7 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
         if (getWorld() == null)
             return fluidStack;
 
-        Iterator<TileTank> i = getAllTanks();
-        FluidStack contents = i.next().fluidStack;
-        if (contents != null) {
-            contents = contents.copy();
-            while (i.hasNext()) {
-                FluidStack c = i.next().fluidStack;
-                if (c != null) {
-                    contents.amount += c.amount;
-                } else {
-                    break;
-                }
-            }
-        }
-        return contents;
+        return getStack().getContents();
     }
 
     @Override
@@ -479,13 +491,7 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
         if (getWorld() == null)
             return CAPACITY;
 
-        int c = 0;
-        Iterator<TileTank> i = getAllTanks();
-        while (i.hasNext()) {
-            c += CAPACITY;
-            i.next();
-        }
-        return c;
+        return getStack().getCapacity();
     }
 
     @Override
@@ -496,11 +502,11 @@ public class TileTank extends TileBase implements FluidUtils.IFluidHandlerAutoma
         if (getBottomTank() != this)
             return getBottomTank().getComparatorValue();
 
-        FluidStack contents = getContents();
-        if (contents == null || contents.amount <= 0)
+        TankStack stack = getStack();
+        if (stack.getAmount() <= 0 || stack.getBottom().fluidStack == null)
             return 0;
 
-        return Math.max(1, contents.amount * 15 / getCapacity());
+        return Math.max(1, stack.getAmount() * 15 / stack.getCapacity());
     }
 
     @Override
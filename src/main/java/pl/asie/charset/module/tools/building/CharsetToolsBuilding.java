@@ -78,7 +78,7 @@ public class CharsetToolsBuilding {
 
 	@Mod.EventHandler
 	public void init(FMLInitializationEvent event) {
-		packet.registerPacket(0x01, PacketSetBlockMask.class);
+		packet.registerPacket(0x01, PacketSetBlockMask::new);
 		GuiHandlerCharset.INSTANCE.register(GuiHandlerCharset.CHISEL, Side.SERVER, (r) -> new ContainerChisel(r.player));
 	}
 
@@ -149,8 +149,8 @@ public class CharsetTransportDyeableMinecarts {
 
 	@Mod.EventHandler
 	public void init(FMLInitializationEvent event) {
-		packet.registerPacket(0x01, PacketMinecartUpdate.class);
-		packet.registerPacket(0x02, PacketMinecartRequest.class);
+		packet.registerPacket(0x01, PacketMinecartUpdate::new);
+		packet.registerPacket(0x02, PacketMinecartRequest::new);
 
 		CapabilityManager.INSTANCE.register(MinecartDyeable.class, new MinecartDyeable.Storage(), MinecartDyeable::new);
 	}
@@ -90,8 +90,8 @@ public class CharsetTweakBlockCarrying {
 
     @Mod.EventHandler
     public void init(FMLInitializationEvent event) {
-        packet.registerPacket(0x01, PacketCarryGrab.class);
-        packet.registerPacket(0x02, PacketCarrySync.class);
+        packet.registerPacket(0x01, PacketCarryGrab::new);
+        packet.registerPacket(0x02, PacketCarrySync::new);
 
         CarryTransformerRegistry.INSTANCE.registerEntityTransformer(new CarryTransformerEntityMinecart());
 
@@ -47,7 +47,7 @@ public class CharsetTweakFixPlayerDamageAnimation {
 
 	@Mod.EventHandler
 	public void init(FMLInitializationEvent event) {
-		registry.registerPacket(0x01, PacketSyncAttackValue.class);
+		registry.registerPacket(0x01, PacketSyncAttackValue::new);
 	}
 
 	@SubscribeEvent
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.simplelogic.gates;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import pl.asie.simplelogic.gates.logic.GateLogic;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A group of gates connected directly to one another, compiled into a
+ * dense signal graph. Signals on edges inside the cluster are read from
+ * the driving gate without probing the world, and outputs which only
+ * lead into the cluster do not notify neighbouring blocks.
+ *
+ * Any structural change (placement, removal, rotation, side toggling)
+ * invalidates the cluster; it is rebuilt lazily by the next gate to use it.
+ */
+final class GateCluster {
+	private static final PartGate[] NO_GATES = new PartGate[0];
+
+	private final PartGate[] gates;
+	// [index * 4 + side] -> the gate driving that input, and the side it drives it from
+	private final PartGate[] sources;
+	private final EnumFacing[] sourceFacings;
+	// per gate; null if any of its outputs leaves the cluster
+	private final PartGate[][] consumers;
+	private boolean valid = true;
+
+	private GateCluster(List<PartGate> gates) {
+		this.gates = gates.toArray(new PartGate[gates.size()]);
+		this.sources = new PartGate[this.gates.length * 4];
+		this.sourceFacings = new EnumFacing[this.gates.length * 4];
+		this.consumers = new PartGate[this.gates.length][];
+	}
+
+	@Nullable
+	private static PartGate getGate(World world, BlockPos pos, EnumFacing side) {
+		if (!world.isBlockLoaded(pos)) {
+			return null;
+		}
+
+		TileEntity tile = world.getTileEntity(pos);
+		if (tile instanceof PartGate && !tile.isInvalid() && ((PartGate) tile).getSide() == side) {
+			return (PartGate) tile;
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * @return The gate connected to the given side, if its facing side is
+	 * an open redstone connection.
+	 */
+	@Nullable
+	static PartGate getConnectedGate(PartGate gate, EnumFacing facing) {
+		GateLogic logic = gate.logic;
+		if (!logic.isSideOpen(facing) || !logic.getType(facing).isRedstone()) {
+			return null;
+		}
+
+		EnumFacing real = gate.gateToReal(facing);
+		PartGate other = getGate(gate.getWorld(), gate.getPos().offset(real), gate.getSide());
+		if (other == null) {
+			return null;
+		}
+
+		EnumFacing otherFacing = other.realToGate(real.getOpposite());
+		if (otherFacing == null || !other.logic.isSideOpen(otherFacing) || !other.logic.getType(otherFacing).isRedstone()) {
+			return null;
+		}
+
+		return other;
+	}
+
+	static GateCluster build(PartGate root) {
+		List<PartGate> list = new ArrayList<>();
+		Map<PartGate, Integer> indices = new IdentityHashMap<>();
+		Queue<PartGate> queue = new ArrayDeque<>();
+
+		indices.put(root, 0);
+		list.add(root);
+		queue.add(root);
+
+		while (!queue.isEmpty()) {
+			PartGate gate = queue.remove();
+			for (int i = 0; i <= 3; i++) {
+				PartGate other = getConnectedGate(gate, EnumFacing.getFront(i + 2));
+				if (other != null && !indices.containsKey(other)) {
+					indices.put(other, list.size());
+					list.add(other);
+					queue.add(other);
+				}
+			}
+		}
+
+		GateCluster cluster = new GateCluster(list);
+		for (int g = 0; g < cluster.gates.length; g++) {
+			PartGate gate = cluster.gates[g];
+			List<PartGate> gateConsumers = new ArrayList<>(4);
+			boolean leaves = false;
+
+			for (int i = 0; i <= 3; i++) {
+				EnumFacing facing = EnumFacing.getFront(i + 2);
+				GateLogic.Connection conn = gate.logic.getType(facing);
+				if (!gate.logic.isSideOpen(facing)) {
+					continue;
+				} else if (!conn.isRedstone()) {
+					// bundled outputs always go to the world
+					if (conn.isOutput()) {
+						leaves = true;
+					}
+					continue;
+				}
+
+				PartGate other = getConnectedGate(gate, facing);
+				if (conn.isInput() && other != null) {
+					cluster.sources[g * 4 + i] = other;
+					cluster.sourceFacings[g * 4 + i] = gate.gateToReal(facing).getOpposite();
+				}
+				if (conn.isOutput()) {
+					if (other != null) {
+						gateConsumers.add(other);
+					} else {
+						leaves = true;
+					}
+				}
+			}
+
+			if (gate.cluster != null && gate.cluster != cluster) {
+				gate.cluster.invalidate();
+			}
+			cluster.consumers[g] = leaves ? null : (gateConsumers.isEmpty() ? NO_GATES : gateConsumers.toArray(new PartGate[gateConsumers.size()]));
+			gate.cluster = cluster;
+			gate.clusterIndex = g;
+		}
+
+		return cluster;
+	}
+
+	boolean isValid() {
+		return valid;
+	}
+
+	void invalidate() {
+		if (valid) {
+			valid = false;
+			for (PartGate gate : gates) {
+				if (gate.cluster == this) {
+					gate.cluster = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The signal on the given input, or -1 if it comes from outside the cluster.
+	 */
+	int getInput(int index, int side) {
+		PartGate source = sources[index * 4 + side];
+		return source != null ? source.getWeakSignal(sourceFacings[index * 4 + side]) : -1;
+	}
+
+	/**
+	 * @return The gates fed by the given gate, or null if any of its outputs
+	 * leaves the cluster.
+	 */
+	@Nullable
+	PartGate[] getConsumers(int index) {
+		return consumers[index];
+	}
+}
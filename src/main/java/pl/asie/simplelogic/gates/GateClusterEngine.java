@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.simplelogic.gates;
+
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Runs pending gate ticks once per world tick, in place of every gate
+ * ticking on its own. Worlds are keyed by dimension, as gates inside
+ * multipart containers may see a wrapped world.
+ */
+public final class GateClusterEngine {
+	public static final GateClusterEngine INSTANCE = new GateClusterEngine();
+	private final TIntObjectMap<Set<PartGate>> pending = new TIntObjectHashMap<>();
+
+	private GateClusterEngine() {
+
+	}
+
+	void schedule(PartGate gate) {
+		World world = gate.getWorld();
+		if (world != null && !world.isRemote) {
+			int dim = world.provider.getDimension();
+			Set<PartGate> set = pending.get(dim);
+			if (set == null) {
+				set = new LinkedHashSet<>();
+				pending.put(dim, set);
+			}
+			set.add(gate);
+		}
+	}
+
+	void unschedule(PartGate gate) {
+		World world = gate.getWorld();
+		if (world != null && !world.isRemote) {
+			Set<PartGate> set = pending.get(world.provider.getDimension());
+			if (set != null) {
+				set.remove(gate);
+			}
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		if (!event.getWorld().isRemote) {
+			pending.remove(event.getWorld().provider.getDimension());
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldTick(TickEvent.WorldTickEvent event) {
+		if (event.phase != TickEvent.Phase.END || event.world.isRemote) {
+			return;
+		}
+
+		Set<PartGate> set = pending.get(event.world.provider.getDimension());
+		if (set == null || set.isEmpty()) {
+			return;
+		}
+
+		event.world.profiler.startSection("simplelogic_gates");
+		// gates scheduled while running are picked up on the next tick
+		PartGate[] gates = set.toArray(new PartGate[set.size()]);
+		for (PartGate gate : gates) {
+			if (gate.isInvalid()) {
+				set.remove(gate);
+			} else if (gate.updatePendingTick()) {
+				set.remove(gate);
+			}
+		}
+		event.world.profiler.endSection();
+	}
+}
@@ -40,6 +40,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.RayTraceResult;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
 
 import net.minecraftforge.common.capabilities.Capability;
 
@@ -57,7 +58,7 @@ import pl.asie.charset.lib.utils.*;
 
 import javax.annotation.Nullable;
 
-public class PartGate extends TileBase implements IRenderComparable<PartGate>, ITickable {
+public class PartGate extends TileBase implements IRenderComparable<PartGate> {
 	private class RedstoneCommunications implements IBundledEmitter, IBundledReceiver, IRedstoneEmitter, IRedstoneReceiver {
 		private final EnumFacing side;
 
@@ -121,6 +122,8 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 	public GateLogic logic;
 	private boolean pendingChange;
 	private int pendingTick;
+	GateCluster cluster;
+	int clusterIndex;
 
 	private Orientation orientation = Orientation.FACE_UP_POINT_NORTH;
 
@@ -171,6 +174,7 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 		for (int i = 0; i < rotationIn.ordinal(); i++) {
 			orientation = orientation.rotateAround(EnumFacing.UP);
 		}
+		invalidateClusters();
 		onChanged();
 		pendingChange = true;
 		markBlockForUpdate();
@@ -179,6 +183,7 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 	@Override
 	public void mirror(Mirror mirror) {
 		super.mirror(mirror);
+		invalidateClusters();
 		if (orientation.facing.getAxis() == EnumFacing.Axis.Y && logic.canMirror()) {
 			switch (mirror) {
 				case LEFT_RIGHT:
@@ -239,17 +244,18 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 		stacks.add(ItemGate.getStack(this, silkTouch));
 	}
 
-	@Override
-	public void update() {
-		if (getWorld() != null && !getWorld().isRemote && pendingTick > 0) {
-			pendingTick--;
-			if (pendingTick == 0) {
-				if (tick() || pendingChange) {
-					propagateOutputs();
-					pendingChange = false;
-				}
+	/**
+	 * @return True if the gate no longer has a tick pending.
+	 */
+	boolean updatePendingTick() {
+		if (pendingTick > 0 && --pendingTick == 0) {
+			if (tick() || pendingChange) {
+				propagateOutputs();
+				pendingChange = false;
 			}
 		}
+
+		return pendingTick == 0;
 	}
 
 	protected boolean tick() {
@@ -257,8 +263,62 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 	}
 
 	public void propagateOutputs() {
-		world.notifyNeighborsRespectDebug(getPos(), getBlockType(), false);
-		markBlockForUpdate();
+		GateCluster c = getCluster();
+		PartGate[] consumers = c != null ? c.getConsumers(clusterIndex) : null;
+		if (consumers != null) {
+			// every output leads into the cluster; skip the world-wide notification
+			for (PartGate gate : consumers) {
+				if (!gate.isInvalid()) {
+					gate.onChanged();
+				}
+			}
+		} else {
+			world.notifyNeighborsRespectDebug(getPos(), getBlockType(), false);
+		}
+
+		if (c != null || canQueueSync()) {
+			markBlockForSync();
+		} else {
+			markBlockForUpdate();
+		}
+	}
+
+	// gates in multipart containers may see a wrapped world, and their
+	// updates have to be sent through the container rather than queued
+	private boolean canQueueSync() {
+		return world instanceof WorldServer && !SimpleLogicGates.proxyMultipart.isMultipart(world, pos);
+	}
+
+	@Nullable
+	private GateCluster getCluster() {
+		if (cluster == null || !cluster.isValid()) {
+			if (!SimpleLogicGates.useGateClusters || world == null || world.isRemote || isInvalid()
+					|| world.getTileEntity(pos) != this || SimpleLogicGates.proxyMultipart.isMultipart(world, pos)) {
+				return null;
+			}
+
+			GateCluster.build(this);
+		}
+
+		return cluster;
+	}
+
+	private void invalidateClusters() {
+		if (cluster != null) {
+			cluster.invalidate();
+		}
+	}
+
+	private void invalidateNeighborClusters() {
+		invalidateClusters();
+		if (world != null && !world.isRemote) {
+			for (EnumFacing facing : EnumFacing.HORIZONTALS) {
+				PartGate other = GateCluster.getConnectedGate(this, facing);
+				if (other != null) {
+					other.invalidateClusters();
+				}
+			}
+		}
 	}
 
 	public boolean updateInputs(byte[] values) {
@@ -266,6 +326,7 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 
 		boolean changed = false;
 		System.arraycopy(values, 0, oldValues, 0, 4);
+		GateCluster c = getCluster();
 
 		for (int i = 0; i <= 3; i++) {
 			EnumFacing facing = EnumFacing.getFront(i + 2);
@@ -277,7 +338,10 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 					EnumFacing real = gateToReal(facing);
 					World w = getWorld();
 					BlockPos p = getPos().offset(real);
-					int mpValue = SimpleLogicGates.proxyMultipart.getWeakPower(w, p, real);
+					int mpValue = c != null ? c.getInput(clusterIndex, i) : -1;
+					if (mpValue < 0) {
+						mpValue = SimpleLogicGates.proxyMultipart.getWeakPower(w, p, real);
+					}
 					if (mpValue >= 0) {
 						values[i] = (byte) mpValue;
 					} else {
@@ -326,14 +390,24 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 	public void scheduleTick() {
 		if (pendingTick == 0) {
 			pendingTick = 2;
+			GateClusterEngine.INSTANCE.schedule(this);
 		}
 	}
 
 	@Override
 	public void validate() {
 		super.validate();
+		invalidateClusters();
 		pendingTick = 1;
 		pendingChange = true;
+		GateClusterEngine.INSTANCE.schedule(this);
+	}
+
+	@Override
+	public void invalidate(InvalidationType type) {
+		super.invalidate(type);
+		invalidateClusters();
+		GateClusterEngine.INSTANCE.unschedule(this);
 	}
 
 	public void onNeighborBlockChange(Block block) {
@@ -355,6 +429,7 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 				orientation = orientation.getPrevRotationOnFace();
 			}
 
+			invalidateNeighborClusters();
 			onChanged();
 			markBlockForUpdate();
 			return true;
@@ -448,6 +523,7 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 
 		if (changed) {
 			if (!remote) {
+				invalidateNeighborClusters();
 				onChanged();
 				pendingChange = true;
 				markBlockForUpdate();
@@ -488,6 +564,7 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 		readItemNBT(stack.getTagCompound());
 		orientation = Orientation.fromDirection(SimpleLogicGates.onlyBottomFace ? EnumFacing.UP : face);
 		orientation = orientation.pointTopTo(gateToReal(getClosestFace(new Vec3d(hitX, hitY, hitZ), false)));
+		invalidateNeighborClusters();
 	}
 
 	@Override
@@ -538,6 +615,8 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 
 		if (isClient) {
 			markBlockForRenderUpdate();
+		} else {
+			invalidateClusters();
 		}
 	}
 
@@ -32,4 +32,8 @@ public class ProxyMultipart {
 	public int getWeakPower(IBlockAccess w, BlockPos p, EnumFacing real) {
 		return -1;
 	}
+
+	public boolean isMultipart(IBlockAccess w, BlockPos p) {
+		return false;
+	}
 }
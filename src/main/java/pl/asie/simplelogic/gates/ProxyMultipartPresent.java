@@ -38,4 +38,9 @@ public class ProxyMultipartPresent extends ProxyMultipart {
 			return -1;
 		}
 	}
+
+	@Override
+	public boolean isMultipart(IBlockAccess w, BlockPos p) {
+		return MultipartHelper.getContainer(w, p).isPresent();
+	}
 }
@@ -92,6 +92,7 @@ public class SimpleLogicGates {
 	public static PacketRegistry packet;
 
 	public static boolean onlyBottomFace;
+	public static boolean useGateClusters;
 	public static BlockGate blockGate;
 	public static ItemGate itemGate;
 	public static Set<String> inversionSensitiveLogics = new HashSet<>();
@@ -109,6 +110,7 @@ public class SimpleLogicGates {
 	@EventHandler
 	public void onLoadConfig(CharsetLoadConfigEvent event) {
 		onlyBottomFace = config.getBoolean("gatesOnlyBottomFace", "general", false, "Set to true if you wish that gates only be placed on the bottom face of a block - this is great for vanilla-plus style modpacks!");
+		useGateClusters = config.getBoolean("gateClusters", "general", true, "Group directly connected gates into clusters which exchange signals without querying the world. Disable if gates misbehave next to other mods' blocks.");
 	}
 
 	@SubscribeEvent
@@ -140,6 +142,7 @@ public class SimpleLogicGates {
 		registerGate(new ResourceLocation("simplelogic:randomizer"), GateLogicRandomizer.class);
 		registerGate(new ResourceLocation("simplelogic:synchronizer"), GateLogicSynchronizer.class);
 		MinecraftForge.EVENT_BUS.register(proxy);
+		MinecraftForge.EVENT_BUS.register(GateClusterEngine.INSTANCE);
 
 		if (config.hasChanged()) {
 			config.save();
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.audio.codec;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DFPWMTest {
+	private static final int LENGTH = 4096;
+
+	private static byte[] randomPcm(long seed) {
+		byte[] pcm = new byte[LENGTH * 8];
+		new Random(seed).nextBytes(pcm);
+		return pcm;
+	}
+
+	private static byte[] sinePcm(double frequency, double amplitude) {
+		byte[] pcm = new byte[LENGTH * 8];
+		for (int i = 0; i < pcm.length; i++) {
+			pcm[i] = (byte) Math.round(Math.sin(i * frequency * 2 * Math.PI / 48000) * amplitude);
+		}
+		return pcm;
+	}
+
+	private static byte[][] vectors() {
+		return new byte[][] {
+				randomPcm(0x5EED),
+				randomPcm(1234567L),
+				sinePcm(440, 127),
+				sinePcm(3000, 60),
+				sinePcm(50, 127.5)
+		};
+	}
+
+	private static byte[] referenceCompress(byte[] pcm) {
+		byte[] out = new byte[pcm.length / 8];
+		new ReferenceDFPWM().compress(out, pcm, 0, 0, out.length);
+		return out;
+	}
+
+	private static byte[] referenceDecompress(byte[] data) {
+		byte[] out = new byte[data.length * 8];
+		new ReferenceDFPWM().decompress(out, data, 0, 0, data.length);
+		return out;
+	}
+
+	@Test
+	public void compressMatchesReference() {
+		for (byte[] pcm : vectors()) {
+			byte[] out = new byte[pcm.length / 8];
+			new DFPWM().compress(out, pcm, 0, 0, out.length);
+			assertArrayEquals(referenceCompress(pcm), out);
+		}
+	}
+
+	@Test
+	public void decompressMatchesReference() {
+		for (byte[] pcm : vectors()) {
+			byte[] data = referenceCompress(pcm);
+			byte[] out = new byte[data.length * 8];
+			new DFPWM().decompress(out, data, 0, 0, data.length);
+			assertArrayEquals(referenceDecompress(data), out);
+		}
+	}
+
+	@Test
+	public void splitCallsMatchReference() {
+		int[] chunks = { 1, 7, 64, 3, 511, 513 };
+
+		for (byte[] pcm : vectors()) {
+			byte[] expected = referenceCompress(pcm);
+			DFPWM encoder = new DFPWM();
+			byte[] data = new byte[expected.length];
+			for (int pos = 0, c = 0; pos < data.length; c++) {
+				int len = Math.min(chunks[c % chunks.length], data.length - pos);
+				encoder.compress(data, pcm, pos, pos * 8, len);
+				pos += len;
+			}
+			assertArrayEquals(expected, data);
+
+			byte[] expectedPcm = referenceDecompress(expected);
+			DFPWM decoder = new DFPWM();
+			byte[] decoded = new byte[expectedPcm.length];
+			for (int pos = 0, c = 0; pos < expected.length; c++) {
+				int len = Math.min(chunks[c % chunks.length], expected.length - pos);
+				decoder.decompress(decoded, expected, pos * 8, pos, len);
+				pos += len;
+			}
+			assertArrayEquals(expectedPcm, decoded);
+		}
+	}
+
+	@Test
+	public void byteBuffersMatchReference() {
+		for (boolean direct : new boolean[] { false, true }) {
+			for (byte[] pcm : vectors()) {
+				byte[] expected = referenceCompress(pcm);
+				ByteBuffer src = allocate(pcm.length, direct);
+				src.put(pcm).flip();
+				ByteBuffer data = allocate(expected.length, direct);
+				new DFPWM().compress(data, src);
+				assertEquals(0, src.remaining());
+				assertEquals(0, data.remaining());
+				assertArrayEquals(expected, toArray(data));
+
+				byte[] expectedPcm = referenceDecompress(expected);
+				data.flip();
+				ByteBuffer decoded = allocate(expectedPcm.length, direct);
+				new DFPWM().decompress(decoded, data);
+				assertEquals(0, data.remaining());
+				assertEquals(0, decoded.remaining());
+				assertArrayEquals(expectedPcm, toArray(decoded));
+			}
+		}
+	}
+
+	@Test
+	public void byteBuffersStopAtShortestBuffer() {
+		byte[] pcm = randomPcm(42);
+		ByteBuffer src = ByteBuffer.allocateDirect(pcm.length);
+		src.put(pcm).flip();
+		ByteBuffer data = ByteBuffer.allocate(100);
+		data.position(10);
+
+		new DFPWM().compress(data, src);
+		assertEquals(90 * 8, src.position());
+		assertEquals(100, data.position());
+
+		byte[] expected = new byte[90];
+		new ReferenceDFPWM().compress(expected, pcm, 0, 0, 90);
+		byte[] actual = new byte[90];
+		data.position(10);
+		data.get(actual);
+		assertArrayEquals(expected, actual);
+	}
+
+	private static ByteBuffer allocate(int size, boolean direct) {
+		return direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+	}
+
+	private static byte[] toArray(ByteBuffer buffer) {
+		byte[] out = new byte[buffer.capacity()];
+		ByteBuffer view = buffer.duplicate();
+		view.clear();
+		view.get(out);
+		return out;
+	}
+}
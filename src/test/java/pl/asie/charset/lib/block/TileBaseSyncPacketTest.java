@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.block;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.network.play.server.SPacketUpdateTileEntity;
+import net.minecraft.util.math.BlockPos;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TileBaseSyncPacketTest {
+	private static final BlockPos POS = new BlockPos(12, 64, -345);
+
+	// what a dedicated server does to a packet before the client sees it
+	private static SPacketUpdateTileEntity roundTrip(SPacketUpdateTileEntity packet) throws IOException {
+		PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+		packet.writePacketData(buffer);
+		SPacketUpdateTileEntity read = new SPacketUpdateTileEntity();
+		read.readPacketData(buffer);
+		return read;
+	}
+
+	@Test
+	public void testDeltaPacketSurvivesSerialization() throws IOException {
+		NBTTagCompound delta = new NBTTagCompound();
+		delta.setInteger("count", 42);
+
+		SPacketUpdateTileEntity packet = roundTrip(TileBase.createDeltaPacket(POS, delta));
+		assertTrue(TileBase.isDeltaPacket(packet));
+		assertEquals(POS, packet.getPos());
+		assertEquals(delta, packet.getNbtCompound());
+	}
+
+	@Test
+	public void testFullPacketsAreNotDeltas() throws IOException {
+		for (int meta = 0; meta < 16; meta++) {
+			SPacketUpdateTileEntity packet = roundTrip(new SPacketUpdateTileEntity(POS, meta, new NBTTagCompound()));
+			assertFalse(TileBase.isDeltaPacket(packet));
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.utils;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * The original fixed-step segment tracer, kept as the reference for
+ * {@link RayTraceUtils.Cursor}.
+ */
+final class ReferenceRayTrace {
+	private ReferenceRayTrace() {
+
+	}
+
+	static RayTraceUtils.Result getCollision(World world, Vec3d from, Vec3d to, Predicate<BlockPos> ignoreCheck) {
+		int steps = (int) Math.ceil(from.distanceTo(to));
+		if (steps <= 0) {
+			return new RayTraceUtils.Result(null, null);
+		}
+
+		double xd = (to.x - from.x) / steps;
+		double yd = (to.y - from.y) / steps;
+		double zd = (to.z - from.z) / steps;
+
+		BlockPos lastPos = new BlockPos(from);
+		Vec3d vecPos = from.addVector(xd, yd, zd);
+
+		for (int i = 1; i <= steps; i++) {
+			BlockPos pos = new BlockPos(vecPos);
+			if (!pos.equals(lastPos) && !ignoreCheck.test(pos)) {
+				IBlockState state = world.getBlockState(pos);
+				List<AxisAlignedBB> list = new ArrayList<>();
+				state.addCollisionBoxToList(world, pos, new AxisAlignedBB(pos), list, null, false);
+				RayTraceUtils.Result result = RayTraceUtils.getCollision(world, pos, from, to, list, false);
+				if (result.valid()) {
+					return result;
+				}
+			}
+
+			vecPos = vecPos.addVector(xd, yd, zd);
+			lastPos = pos;
+		}
+
+		return new RayTraceUtils.Result(null, null);
+	}
+}